@@ -0,0 +1,34 @@
+package org.yah.sinject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yah.sinject.impl.DefaultServices;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build a container from the synthetic declarations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private SyntheticConfiguration configuration;
+
+    @Setup
+    public void setup() {
+        configuration = SyntheticConfiguration.generate(size);
+    }
+
+    @Benchmark
+    public DefaultServices build() {
+        return configuration.build();
+    }
+
+}
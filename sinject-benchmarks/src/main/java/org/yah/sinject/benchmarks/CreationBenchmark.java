@@ -0,0 +1,100 @@
+package org.yah.sinject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yah.sinject.Provider;
+import org.yah.sinject.Service;
+import org.yah.sinject.builder.Arguments;
+import org.yah.sinject.builder.Invoker;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.impl.DefaultServices;
+import org.yah.sinject.impl.builder.declarations.ServiceWirings;
+
+import java.lang.reflect.Constructor;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create the instance of a prototype service, with a direct, an optional and a provided dependency.<br>
+ * Run with the GC profiler ({@link BenchmarkRunner}): the <code>gc.alloc.rate.norm</code> of {@link #create()}
+ * must match the one of {@link #baseline()}, creating the same instance with a constructor call, so that the
+ * creation path does not allocate anything but the instance.<br>
+ * {@link #invoker()} and {@link #reflection()} isolate the cost of the constructor call: the wiring invoker bound
+ * once to a method handle, and {@link Constructor#newInstance(Object...)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreationBenchmark {
+
+    public static class Dependency {
+    }
+
+    public static class Widget {
+        final Dependency dependency;
+        final Optional<Dependency> optionalDependency;
+        final Provider<Dependency> dependencyProvider;
+
+        public Widget(Dependency dependency, Optional<Dependency> optionalDependency,
+                      Provider<Dependency> dependencyProvider) {
+            this.dependency = dependency;
+            this.optionalDependency = optionalDependency;
+            this.dependencyProvider = dependencyProvider;
+        }
+    }
+
+    private DefaultServices services;
+
+    private Service<Widget> service;
+
+    private Widget prototype;
+
+    private Invoker<? extends Widget> invoker;
+
+    private Constructor<Widget> constructor;
+
+    private Object[] arguments;
+
+    private Arguments invokerArguments;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        services = DefaultServices.builder()
+                .declare(Dependency.class).register()
+                .declare(Widget.class).withScope(ServiceScope.PROTOTYPE).register()
+                .build();
+        service = services.service(Widget.class);
+        prototype = service.get();
+        invoker = ServiceWirings.constructors(Widget.class).get(0).getInvoker();
+        constructor = Widget.class.getConstructor(Dependency.class, Optional.class, Provider.class);
+        arguments = new Object[]{prototype.dependency, prototype.optionalDependency, prototype.dependencyProvider};
+        invokerArguments = Arguments.of(arguments);
+    }
+
+    @TearDown
+    public void tearDown() {
+        services.close();
+    }
+
+    @Benchmark
+    public Widget create() {
+        return service.get();
+    }
+
+    @Benchmark
+    public Widget baseline() {
+        return new Widget(prototype.dependency, prototype.optionalDependency, prototype.dependencyProvider);
+    }
+
+    @Benchmark
+    public Widget invoker() throws Exception {
+        return invoker.invoke(invokerArguments);
+    }
+
+    @Benchmark
+    public Widget reflection() throws ReflectiveOperationException {
+        return constructor.newInstance(arguments);
+    }
+}
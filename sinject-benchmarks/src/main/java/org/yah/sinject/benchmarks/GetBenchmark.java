@@ -0,0 +1,60 @@
+package org.yah.sinject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yah.sinject.Service;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.DefaultServices;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Get the instance of an already created service, and create the full services graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBenchmark {
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private SyntheticConfiguration configuration;
+
+    private Service<?> service;
+
+    @Setup
+    public void setup() {
+        configuration = SyntheticConfiguration.generate(size);
+        final DefaultServices services = configuration.build();
+        final List<ServiceDeclaration<?>> declarations = configuration.declarations();
+        final ServiceDeclaration<?> last = declarations.get(declarations.size() - 1);
+        service = services.service(last.name(), last.type());
+        service.get();
+    }
+
+    @Benchmark
+    public Object get() {
+        return service.get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object getContended() {
+        return service.get();
+    }
+
+    /**
+     * build a container and create all its instances
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public DefaultServices createAll() {
+        final DefaultServices services = configuration.build();
+        services.forEach(Service::get);
+        return services;
+    }
+}
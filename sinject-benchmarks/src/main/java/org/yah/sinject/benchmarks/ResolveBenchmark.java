@@ -0,0 +1,104 @@
+package org.yah.sinject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yah.sinject.Service;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.DefaultServices;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.reflect.TypeUtils.getRawType;
+
+/**
+ * Resolve services from a frozen container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResolveBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private DefaultServices services;
+
+    private String[] names;
+    private Type[] types;
+    private Type[] rawTypes;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        final SyntheticConfiguration configuration = SyntheticConfiguration.generate(size);
+        services = configuration.build();
+
+        final List<ServiceDeclaration<?>> declarations = configuration.declarations();
+        final Random random = new Random(12);
+        names = new String[QUERIES];
+        types = new Type[QUERIES];
+        rawTypes = new Type[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            final ServiceDeclaration<?> declaration = declarations.get(random.nextInt(declarations.size()));
+            names[i] = declaration.name();
+            types[i] = declaration.type();
+            rawTypes[i] = getRawType(declaration.type(), null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        services.close();
+    }
+
+    /**
+     * lookup by name and declared generic type
+     */
+    @Benchmark
+    public Service<?> resolveByName() {
+        final int i = next();
+        return services.service(names[i], types[i]);
+    }
+
+    /**
+     * lookup by name and raw super type, requiring parameterized to raw type assignability
+     */
+    @Benchmark
+    public Service<?> resolveByRawType() {
+        final int i = next();
+        return services.service(names[i], rawTypes[i]);
+    }
+
+    /**
+     * lookup by type only, the top priority Services instance
+     */
+    @Benchmark
+    public Service<?> resolveByType() {
+        return services.service(org.yah.sinject.Services.class);
+    }
+
+    /**
+     * lookup of a missing service
+     */
+    @Benchmark
+    public boolean resolveMissing() {
+        try {
+            return services.service("missing", Supplier.class) != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (QUERIES - 1);
+    }
+}
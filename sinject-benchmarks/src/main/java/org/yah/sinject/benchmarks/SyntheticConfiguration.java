@@ -0,0 +1,164 @@
+package org.yah.sinject.benchmarks;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.DefaultServices;
+import org.yah.sinject.impl.DefaultServicesBuilder;
+import org.yah.sinject.impl.builder.ServiceDependencies;
+import org.yah.sinject.impl.builder.ServiceDependency;
+import org.yah.sinject.impl.builder.declarations.DefaultServiceDeclaration;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Generate a reproducible set of service declarations, with generic types, priorities and dependencies chains.
+ */
+public final class SyntheticConfiguration {
+
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    private static final int MAX_DEPENDENCIES = 3;
+
+    private static final Type[] VALUE_TYPES = {
+            String.class, Integer.class, Long.class, Double.class, UUID.class, BigDecimal.class, LocalDate.class,
+            byte[].class, TypeUtils.parameterize(List.class, String.class),
+            TypeUtils.parameterize(Map.class, String.class, Long.class)
+    };
+
+    private static final int[] PRIORITIES = {-1, 0, 0, 0, 1};
+
+    public static SyntheticConfiguration generate(int size) {
+        return generate(size, DEFAULT_MAX_DEPTH, 42);
+    }
+
+    /**
+     * @param size     the number of services
+     * @param maxDepth the maximum length of a dependency chain
+     * @param seed     the random seed
+     */
+    public static SyntheticConfiguration generate(int size, int maxDepth, long seed) {
+        final Random random = new Random(seed);
+        final List<ServiceDeclaration<?>> declarations = new ArrayList<>(size);
+        final int[] depths = new int[size];
+        for (int i = 0; i < size; i++) {
+            final Type type = randomType(random);
+            final String name = "service" + i;
+
+            final List<ServiceDependency> dependencies = new ArrayList<>();
+            int depth = 0;
+            final int dependenciesCount = i == 0 ? 0 : random.nextInt(MAX_DEPENDENCIES + 1);
+            for (int d = 0; d < dependenciesCount; d++) {
+                final int dependency = random.nextInt(i);
+                if (depths[dependency] < maxDepth) {
+                    final ServiceDeclaration<?> dependencyDeclaration = declarations.get(dependency);
+                    dependencies.add(ServiceDependency.fromDefinition(dependencyDeclaration, false));
+                    depth = Math.max(depth, depths[dependency] + 1);
+                }
+            }
+            depths[i] = depth;
+
+            declarations.add(DefaultServiceDeclaration.builder(type)
+                    .withName(name)
+                    .withPriority(PRIORITIES[random.nextInt(PRIORITIES.length)])
+                    .withDependencies(ServiceDependencies.builder().withDependencies(dependencies).build())
+                    .withFactory(resolved -> new SyntheticService(name, resolved.toArray()))
+                    .build());
+        }
+        return new SyntheticConfiguration(declarations);
+    }
+
+    private static Type randomType(Random random) {
+        final Type value = VALUE_TYPES[random.nextInt(VALUE_TYPES.length)];
+        final Type other = VALUE_TYPES[random.nextInt(VALUE_TYPES.length)];
+        switch (random.nextInt(6)) {
+            case 0:
+                return TypeUtils.parameterize(Supplier.class, value);
+            case 1:
+                return TypeUtils.parameterize(Function.class, value, other);
+            case 2:
+                return TypeUtils.parameterize(Callable.class, value);
+            case 3:
+                return TypeUtils.parameterize(Predicate.class, value);
+            case 4:
+                return TypeUtils.parameterize(BiConsumer.class, value, other);
+            default:
+                return TypeUtils.parameterize(Supplier.class, TypeUtils.parameterize(List.class, value));
+        }
+    }
+
+    private final List<ServiceDeclaration<?>> declarations;
+
+    private SyntheticConfiguration(List<ServiceDeclaration<?>> declarations) {
+        this.declarations = List.copyOf(declarations);
+    }
+
+    public List<ServiceDeclaration<?>> declarations() {
+        return declarations;
+    }
+
+    public DefaultServicesBuilder builder() {
+        final DefaultServicesBuilder builder = DefaultServices.builder();
+        declarations.forEach(builder::register);
+        return builder;
+    }
+
+    public DefaultServices build() {
+        return builder().build();
+    }
+
+    /**
+     * Instance of all synthetic services, implementing all the generated service types.
+     */
+    @SuppressWarnings("rawtypes")
+    public static final class SyntheticService implements Supplier, Function, Callable, Predicate, BiConsumer {
+        private final String name;
+        private final Object[] dependencies;
+
+        public SyntheticService(String name, Object[] dependencies) {
+            this.name = name;
+            this.dependencies = dependencies;
+        }
+
+        public Object[] getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public Object get() {
+            return name;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return o;
+        }
+
+        @Override
+        public void accept(Object o, Object o2) {
+            // nothing to do
+        }
+
+        @Override
+        public Object call() {
+            return name;
+        }
+
+        @Override
+        public boolean test(Object o) {
+            return o != null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.yah.sinject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.yah.sinject.Parametric;
+import org.yah.sinject.Service;
+import org.yah.sinject.impl.DefaultServices;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Iterate typed services views of a frozen container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedServicesBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private DefaultServices services;
+
+    @Setup
+    public void setup() {
+        services = SyntheticConfiguration.generate(size).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        services.close();
+    }
+
+    @Benchmark
+    public void iterateRawType(Blackhole blackhole) {
+        for (Service<Supplier<?>> service : services.<Supplier<?>>services(Supplier.class)) {
+            blackhole.consume(service);
+        }
+    }
+
+    @Benchmark
+    public void iterateParameterizedType(Blackhole blackhole) {
+        for (Service<Supplier<String>> service : services.services(new Parametric<Supplier<String>>() {
+        })) {
+            blackhole.consume(service);
+        }
+    }
+
+    @Benchmark
+    public void iterateNested(Blackhole blackhole) {
+        for (Service<Callable<?>> service : services.<Supplier<?>>services(Supplier.class).<Callable<?>>services(Callable.class)) {
+            blackhole.consume(service);
+        }
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return services.<Supplier<?>>services(Supplier.class).stream(true).count();
+    }
+}
@@ -0,0 +1,89 @@
+package org.yah.sinject.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Generate a <code>org.yah.sinject.builder.ServiceWiring</code> for each class declaring members annotated with
+ * {@link #SERVICE_ANNOTATION}, so that the services builder can create and invoke them without reflection.<br>
+ * Classes that can not be wired from generated code (private members, type variables, non static inner classes)
+ * are skipped with a note, the builder will use reflection for them.
+ */
+@SupportedAnnotationTypes(ServiceWiringProcessor.SERVICE_ANNOTATION)
+public class ServiceWiringProcessor extends AbstractProcessor {
+
+    static final String SERVICE_ANNOTATION = "org.yah.sinject.annotations.Service";
+
+    /**
+     * Must match <code>org.yah.sinject.builder.ServiceWiring.CLASS_NAME_SUFFIX</code>
+     */
+    static final String CLASS_NAME_SUFFIX = "_SinjectWiring";
+
+    private final Set<String> generatedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            final Set<TypeElement> types = roundEnv.getElementsAnnotatedWith(annotation).stream()
+                    .map(Element::getEnclosingElement)
+                    .filter(e -> e.getKind().isClass() || e.getKind().isInterface())
+                    .map(TypeElement.class::cast)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            for (TypeElement type : types) {
+                if (generatedTypes.add(type.getQualifiedName().toString()))
+                    generate(type);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        final WiringWriter writer = new WiringWriter(processingEnv, type);
+        final String source;
+        try {
+            source = writer.write();
+        } catch (UnsupportedWiringException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No generated wiring for " + type.getQualifiedName() + ", " + e.getMessage() +
+                            ". Reflection will be used.", e.getElement() != null ? e.getElement() : type);
+            return;
+        }
+
+        final String wiringClassName = writer.getWiringClassName();
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(wiringClassName, type);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                out.print(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Error writing " + wiringClassName + ": " + e.getMessage(), type);
+        }
+    }
+
+    static boolean isService(Element element) {
+        return serviceAnnotation(element).isPresent();
+    }
+
+    static Optional<? extends AnnotationMirror> serviceAnnotation(Element element) {
+        return element.getAnnotationMirrors().stream()
+                .filter(a -> ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName()
+                        .contentEquals(SERVICE_ANNOTATION))
+                .findFirst();
+    }
+
+}
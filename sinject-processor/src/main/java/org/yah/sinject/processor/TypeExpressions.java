@@ -0,0 +1,154 @@
+package org.yah.sinject.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.*;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.List;
+
+/**
+ * Write java expressions for type mirrors.
+ */
+final class TypeExpressions {
+
+    private static final String TYPE_UTILS = "org.apache.commons.lang3.reflect.TypeUtils";
+
+    private final Types types;
+    private final Elements elements;
+
+    /**
+     * package of the generated code referencing the types
+     */
+    private final String packageName;
+
+    TypeExpressions(Types types, Elements elements, String packageName) {
+        this.types = types;
+        this.elements = elements;
+        this.packageName = packageName;
+    }
+
+    /**
+     * @return an expression creating the <code>java.lang.reflect.Type</code> of <code>type</code>
+     * @throws UnsupportedWiringException if <code>type</code>, or any type it references, is not accessible from
+     *                                    the generated code package
+     */
+    String reflectType(TypeMirror type, Element element) throws UnsupportedWiringException {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return type.getKind().name().toLowerCase() + ".class";
+            case ARRAY:
+                final TypeMirror componentType = ((ArrayType) type).getComponentType();
+                if (isClass(componentType)) {
+                    checkAccessible(type, element);
+                    return rawName(type) + ".class";
+                }
+                return TYPE_UTILS + ".genericArrayType(" + reflectType(componentType, element) + ")";
+            case DECLARED:
+                final DeclaredType declaredType = (DeclaredType) type;
+                checkAccessible((TypeElement) declaredType.asElement(), element);
+                final List<? extends TypeMirror> arguments = declaredType.getTypeArguments();
+                if (arguments.isEmpty())
+                    return rawName(type) + ".class";
+                if (declaredType.getEnclosingType().getKind() == TypeKind.DECLARED &&
+                        !((DeclaredType) declaredType.getEnclosingType()).getTypeArguments().isEmpty())
+                    throw new UnsupportedWiringException("parameterized owner type " + type, element);
+                final StringBuilder sb = new StringBuilder(TYPE_UTILS).append(".parameterize(")
+                        .append(rawName(type)).append(".class");
+                for (TypeMirror argument : arguments) {
+                    sb.append(", ").append(reflectType(argument, element));
+                }
+                return sb.append(")").toString();
+            case WILDCARD:
+                final WildcardType wildcardType = (WildcardType) type;
+                final TypeMirror upperBound = wildcardType.getExtendsBound();
+                final TypeMirror lowerBound = wildcardType.getSuperBound();
+                final StringBuilder wildcard = new StringBuilder(TYPE_UTILS).append(".wildcardType()")
+                        .append(".withUpperBounds(")
+                        .append(upperBound == null ? "Object.class" : reflectType(upperBound, element))
+                        .append(")");
+                if (lowerBound != null)
+                    wildcard.append(".withLowerBounds(").append(reflectType(lowerBound, element)).append(")");
+                return wildcard.append(".build()").toString();
+            default:
+                throw new UnsupportedWiringException("unsupported type " + type, element);
+        }
+    }
+
+    /**
+     * @return the erased type name, boxed for primitives, usable in a cast expression
+     */
+    String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        return rawName(type);
+    }
+
+    String rawName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return rawName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            default:
+                return types.erasure(type).toString();
+        }
+    }
+
+    String argumentsList(List<? extends TypeMirror> parameterTypes, int offset) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append("(").append(castType(parameterTypes.get(i))).append(") arguments.get(").append(i + offset)
+                    .append(")");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Check the innermost component type of a class or an array of classes.
+     */
+    private void checkAccessible(TypeMirror type, Element element) throws UnsupportedWiringException {
+        if (type.getKind() == TypeKind.ARRAY)
+            checkAccessible(((ArrayType) type).getComponentType(), element);
+        else if (type.getKind() == TypeKind.DECLARED)
+            checkAccessible((TypeElement) ((DeclaredType) type).asElement(), element);
+    }
+
+    /**
+     * Check that a type and its enclosing types can be referenced from the generated code package: not private,
+     * and public if declared in another package.
+     */
+    void checkAccessible(TypeElement type, Element element) throws UnsupportedWiringException {
+        final PackageElement typePackage = elements.getPackageOf(type);
+        final boolean samePackage = typePackage.getQualifiedName().contentEquals(packageName);
+        Element current = type;
+        while (current.getKind().isClass() || current.getKind().isInterface()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedWiringException("private type " + current, element);
+            if (!samePackage && !current.getModifiers().contains(Modifier.PUBLIC))
+                throw new UnsupportedWiringException("inaccessible type " + current, element);
+            current = current.getEnclosingElement();
+        }
+    }
+
+    private static boolean isClass(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return true;
+        if (type.getKind() == TypeKind.DECLARED)
+            return ((DeclaredType) type).getTypeArguments().isEmpty();
+        if (type.getKind() == TypeKind.ARRAY)
+            return isClass(((ArrayType) type).getComponentType());
+        return false;
+    }
+}
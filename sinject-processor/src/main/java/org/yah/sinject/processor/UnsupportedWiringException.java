@@ -0,0 +1,20 @@
+package org.yah.sinject.processor;
+
+import javax.lang.model.element.Element;
+
+/**
+ * Thrown when a class can not be wired by generated code.
+ */
+class UnsupportedWiringException extends Exception {
+
+    private final transient Element element;
+
+    UnsupportedWiringException(String message, Element element) {
+        super(message);
+        this.element = element;
+    }
+
+    Element getElement() {
+        return element;
+    }
+}
@@ -0,0 +1,288 @@
+package org.yah.sinject.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Write the <code>ServiceWiring</code> source of a type.
+ */
+final class WiringWriter {
+
+    private static final String BUILDER_PACKAGE = "org.yah.sinject.builder";
+
+    private final Elements elements;
+    private final TypeElement type;
+    private final TypeExpressions typeExpressions;
+    private final String packageName;
+    private final String wiringSimpleName;
+
+    WiringWriter(ProcessingEnvironment processingEnv, TypeElement type) {
+        this.elements = processingEnv.getElementUtils();
+        this.type = type;
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        this.typeExpressions = new TypeExpressions(processingEnv.getTypeUtils(), elements, packageName);
+        String binaryName = elements.getBinaryName(type).toString();
+        if (!packageName.isEmpty())
+            binaryName = binaryName.substring(packageName.length() + 1);
+        this.wiringSimpleName = binaryName.replace('$', '_') + ServiceWiringProcessor.CLASS_NAME_SUFFIX;
+    }
+
+    String getWiringClassName() {
+        return packageName.isEmpty() ? wiringSimpleName : packageName + "." + wiringSimpleName;
+    }
+
+    String write() throws UnsupportedWiringException {
+        checkAccessible(type);
+        if (!type.getTypeParameters().isEmpty())
+            throw new UnsupportedWiringException("generic type", type);
+
+        final String typeName = type.getQualifiedName().toString();
+        final List<String> constructors = new ArrayList<>();
+        for (ExecutableElement constructor : candidateConstructors()) {
+            constructors.add(constructorWiring(typeName, constructor));
+        }
+        final List<String> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (ServiceWiringProcessor.isService(method))
+                methods.add(methodWiring(typeName, method));
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty())
+            sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("@javax.annotation.processing.Generated(\"")
+                .append(ServiceWiringProcessor.class.getName()).append("\")\n");
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(wiringSimpleName)
+                .append(" implements " + BUILDER_PACKAGE + ".ServiceWiring<").append(typeName).append("> {\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public java.util.List<" + BUILDER_PACKAGE + ".ConstructorWiring<").append(typeName)
+                .append(">> constructors() {\n");
+        appendList(sb, constructors);
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public java.util.List<" + BUILDER_PACKAGE + ".MethodWiring> methods() {\n");
+        appendList(sb, methods);
+        sb.append("    }\n\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private List<ExecutableElement> candidateConstructors() throws UnsupportedWiringException {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT))
+            return List.of();
+        final List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        final List<ExecutableElement> candidates = constructors.stream()
+                .filter(ServiceWiringProcessor::isService)
+                .limit(1)
+                .collect(Collectors.toList());
+        return candidates.isEmpty() ? constructors : candidates;
+    }
+
+    private String constructorWiring(String typeName, ExecutableElement constructor) throws UnsupportedWiringException {
+        checkInvocable(constructor);
+        final StringBuilder sb = new StringBuilder(BUILDER_PACKAGE + ".ConstructorWiring.builder(")
+                .append(typeName).append(".class)");
+        if (ServiceWiringProcessor.isService(constructor)) {
+            final String name = annotatedName(constructor);
+            sb.append("\n                        .withAnnotation(")
+                    .append(name == null ? "null" : stringLiteral(name)).append(", ")
+                    .append(annotatedPriority(constructor)).append(", ")
+                    .append(stringLiteral(annotatedScope(constructor))).append(")");
+        }
+        appendParameters(sb, constructor, "\n                        ");
+        sb.append("\n                        .withInvoker(arguments -> new ").append(typeName).append("(")
+                .append(typeExpressions.argumentsList(parameterTypes(constructor), 0)).append("))");
+        return sb.append("\n                        .build()").toString();
+    }
+
+    private String methodWiring(String typeName, ExecutableElement method) throws UnsupportedWiringException {
+        checkInvocable(method);
+        if (method.getReturnType().getKind() == TypeKind.VOID)
+            throw new UnsupportedWiringException("void service method " + method, method);
+
+        final String methodName = method.getSimpleName().toString();
+        String name = annotatedName(method);
+        if (name == null)
+            name = methodName;
+        final StringBuilder sb = new StringBuilder(BUILDER_PACKAGE + ".MethodWiring.builder(")
+                .append(typeName).append(".class, ").append(stringLiteral(methodName)).append(")")
+                .append("\n                        .withName(").append(stringLiteral(name)).append(")")
+                .append("\n                        .withPriority(").append(annotatedPriority(method)).append(")")
+                .append("\n                        .withScope(").append(stringLiteral(annotatedScope(method))).append(")");
+        final String condition = trimToNull(annotationValue(annotationValues(method), "condition"));
+        if (condition != null) {
+            final ExecutableElement conditionMethod = conditionMethod(method, condition);
+            checkInvocable(conditionMethod);
+            sb.append("\n                        .withCondition(").append(BUILDER_PACKAGE + ".MethodWiring.builder(")
+                    .append(typeName).append(".class, ").append(stringLiteral(condition)).append(")");
+            appendMethod(sb, typeName, conditionMethod, "\n                                ");
+            sb.append("\n                                .build())");
+        }
+        appendMethod(sb, typeName, method, "\n                        ");
+        return sb.append("\n                        .build()").toString();
+    }
+
+    private void appendMethod(StringBuilder sb, String typeName, ExecutableElement method, String indent)
+            throws UnsupportedWiringException {
+        final boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+        sb.append(indent).append(".withStatic(").append(isStatic).append(")")
+                .append(indent).append(".withReturnType(")
+                .append(typeExpressions.reflectType(method.getReturnType(), method)).append(")");
+        appendParameters(sb, method, indent);
+
+        sb.append(indent).append(".withInvoker(arguments -> ");
+        if (isStatic)
+            sb.append(typeName);
+        else
+            sb.append("((").append(typeName).append(") arguments.get(0))");
+        sb.append(".").append(method.getSimpleName()).append("(")
+                .append(typeExpressions.argumentsList(parameterTypes(method), isStatic ? 0 : 1)).append("))");
+    }
+
+    /**
+     * @return the <code>boolean</code> method named <code>condition</code> declared by the wired type
+     */
+    private ExecutableElement conditionMethod(ExecutableElement method, String condition)
+            throws UnsupportedWiringException {
+        final List<ExecutableElement> candidates = ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .filter(m -> m.getSimpleName().contentEquals(condition))
+                .filter(m -> m.getReturnType().getKind() == TypeKind.BOOLEAN ||
+                        m.getReturnType().toString().equals(Boolean.class.getName()))
+                .collect(Collectors.toList());
+        if (candidates.size() != 1)
+            throw new UnsupportedWiringException("condition method " + condition + " of " + method, method);
+        return candidates.get(0);
+    }
+
+    private void appendParameters(StringBuilder sb, ExecutableElement executable, String indent)
+            throws UnsupportedWiringException {
+        for (VariableElement parameter : executable.getParameters()) {
+            sb.append(indent).append(".withParameter(")
+                    .append(stringLiteral(parameter.getSimpleName().toString())).append(", ")
+                    .append(typeExpressions.reflectType(parameter.asType(), parameter)).append(")");
+        }
+    }
+
+    private static List<TypeMirror> parameterTypes(ExecutableElement executable) {
+        return executable.getParameters().stream().map(Element::asType).collect(Collectors.toList());
+    }
+
+    private String annotatedName(ExecutableElement element) {
+        final Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotationValues(element);
+        String name = trimToNull(annotationValue(values, "name"));
+        if (name == null)
+            name = trimToNull(annotationValue(values, "value"));
+        return name;
+    }
+
+    private int annotatedPriority(ExecutableElement element) {
+        return (Integer) annotationValue(annotationValues(element), "priority");
+    }
+
+    private String annotatedScope(ExecutableElement element) {
+        return annotationValue(annotationValues(element), "scope");
+    }
+
+    private Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues(Element element) {
+        final AnnotationMirror annotation = ServiceWiringProcessor.serviceAnnotation(element).orElseThrow();
+        return elements.getElementValuesWithDefaults(annotation);
+    }
+
+    private static <T> T annotationValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+                                         String name) {
+        //noinspection unchecked
+        return values.entrySet().stream()
+                .filter(e -> e.getKey().getSimpleName().contentEquals(name))
+                .map(e -> (T) e.getValue().getValue())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("annotation value " + name + " not found"));
+    }
+
+    private static void checkAccessible(TypeElement type) throws UnsupportedWiringException {
+        Element current = type;
+        while (current.getKind().isClass() || current.getKind().isInterface()) {
+            final TypeElement currentType = (TypeElement) current;
+            if (currentType.getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedWiringException("private type " + currentType, type);
+            switch (currentType.getNestingKind()) {
+                case TOP_LEVEL:
+                    return;
+                case MEMBER:
+                    if (currentType.getKind() == ElementKind.CLASS &&
+                            !currentType.getModifiers().contains(Modifier.STATIC))
+                        throw new UnsupportedWiringException("inner type " + currentType, type);
+                    break;
+                default:
+                    throw new UnsupportedWiringException("local type " + currentType, type);
+            }
+            current = current.getEnclosingElement();
+        }
+    }
+
+    private static void checkInvocable(ExecutableElement executable) throws UnsupportedWiringException {
+        if (executable.getModifiers().contains(Modifier.PRIVATE))
+            throw new UnsupportedWiringException("private member " + executable, executable);
+        if (!executable.getTypeParameters().isEmpty())
+            throw new UnsupportedWiringException("generic member " + executable, executable);
+    }
+
+    private static void appendList(StringBuilder sb, List<String> elements) {
+        if (elements.isEmpty()) {
+            sb.append("        return java.util.List.of();\n");
+            return;
+        }
+        sb.append("        return java.util.List.of(\n");
+        for (int i = 0; i < elements.size(); i++) {
+            sb.append("                ").append(elements.get(i));
+            sb.append(i < elements.size() - 1 ? ",\n" : "\n");
+        }
+        sb.append("        );\n");
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null)
+            return null;
+        s = s.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    private static String stringLiteral(String s) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,130 @@
+package org.yah.sinject.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Run the processor only (<code>-proc:only</code>). The sinject builder classes are not on this module classpath,
+ * so the generated sources do not resolve: only their presence is checked.
+ */
+public class ServiceWiringProcessorTest {
+
+    private static final String SERVICE_ANNOTATION = "package org.yah.sinject.annotations;\n" +
+            "public @interface Service {\n" +
+            "    String value() default \"\";\n" +
+            "    String name() default \"\";\n" +
+            "    int priority() default 0;\n" +
+            "    String scope() default \"singleton\";\n" +
+            "    String condition() default \"\";\n" +
+            "}\n";
+
+    private Path sources;
+    private Path generated;
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        sources = Files.createTempDirectory("sinject-sources");
+        generated = Files.createTempDirectory("sinject-generated");
+        write("org/yah/sinject/annotations/Service.java", SERVICE_ANNOTATION);
+    }
+
+    @Test
+    public void accessible_types() throws IOException {
+        write("test/Conf.java", "package test;\n" +
+                "import org.yah.sinject.annotations.Service;\n" +
+                "public class Conf {\n" +
+                "    static class Visible {}\n" +
+                "    @Service\n" +
+                "    public java.util.List<Visible> visibles(Visible[] visible) { return null; }\n" +
+                "}\n");
+        process();
+        assertThat(Files.exists(generated.resolve("test/Conf_SinjectWiring.java")), is(true));
+        assertThat(notes(), empty());
+    }
+
+    @Test
+    public void private_parameter_type() throws IOException {
+        write("test/Conf.java", "package test;\n" +
+                "import org.yah.sinject.annotations.Service;\n" +
+                "public class Conf {\n" +
+                "    private static class Hidden {}\n" +
+                "    @Service\n" +
+                "    public String service(java.util.List<? extends Hidden> hidden) { return null; }\n" +
+                "}\n");
+        process();
+        assertThat(Files.exists(generated.resolve("test/Conf_SinjectWiring.java")), is(false));
+        assertThat(notes(), hasItem(allOf(containsString("test.Conf"), containsString("Hidden"))));
+    }
+
+    @Test
+    public void private_return_type() throws IOException {
+        write("test/Conf.java", "package test;\n" +
+                "import org.yah.sinject.annotations.Service;\n" +
+                "public class Conf {\n" +
+                "    private static class Hidden {}\n" +
+                "    @Service\n" +
+                "    Hidden[] hidden() { return null; }\n" +
+                "}\n");
+        process();
+        assertThat(Files.exists(generated.resolve("test/Conf_SinjectWiring.java")), is(false));
+        assertThat(notes(), hasItem(containsString("private type test.Conf.Hidden")));
+    }
+
+    @Test
+    public void protected_type_of_other_package() throws IOException {
+        write("other/Base.java", "package other;\n" +
+                "public class Base {\n" +
+                "    protected static class Protected {}\n" +
+                "}\n");
+        write("test/Conf.java", "package test;\n" +
+                "import org.yah.sinject.annotations.Service;\n" +
+                "public class Conf extends other.Base {\n" +
+                "    @Service\n" +
+                "    public Object service(java.util.function.Supplier<? super Protected> supplier) { return null; }\n" +
+                "}\n");
+        process();
+        assertThat(Files.exists(generated.resolve("test/Conf_SinjectWiring.java")), is(false));
+        assertThat(notes(), hasItem(containsString("inaccessible type other.Base.Protected")));
+    }
+
+    private void write(String path, String source) throws IOException {
+        final Path file = sources.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+    }
+
+    private void process() throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, null)) {
+            final List<Path> files;
+            try (var paths = Files.walk(sources)) {
+                files = paths.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+            }
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics::add,
+                    List.of("-proc:only", "-s", generated.toString()), null,
+                    fileManager.getJavaFileObjectsFromPaths(files));
+            task.setProcessors(List.of(new ServiceWiringProcessor()));
+            task.call();
+        }
+    }
+
+    private List<String> notes() {
+        return diagnostics.stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.NOTE)
+                .map(d -> d.getMessage(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+}
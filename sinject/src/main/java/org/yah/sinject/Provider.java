@@ -0,0 +1,19 @@
+package org.yah.sinject;
+
+import java.util.function.Supplier;
+
+/**
+ * Lazy handle on a service, injected for <code>Provider&lt;T&gt;</code> constructor and method parameters.<br>
+ * The provided service is resolved when the dependent service is built, but its instance is only created on the
+ * first {@link #get()}.
+ */
+@FunctionalInterface
+public interface Provider<T> extends Supplier<T> {
+
+    /**
+     * @return the instance of the provided service, see {@link Service#get()}
+     */
+    @Override
+    T get();
+
+}
@@ -0,0 +1,52 @@
+package org.yah.sinject;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface Service<T> extends ServiceDefinition, AutoCloseable {
+
+    /**
+     * Get or create the instance of this service, according to its scope.
+     *
+     * @return the instance for this service, creating it if not yet done.
+     * @see org.yah.sinject.builder.ServiceScope
+     */
+    T get();
+
+    /**
+     * Get or create the instance of this service without blocking the calling thread.
+     *
+     * @return a future completed with the instance, or completed exceptionally with a
+     * {@link org.yah.sinject.exceptions.ServiceCreationException} if the creation failed.
+     */
+    default CompletableFuture<T> getAsync() {
+        return CompletableFuture.supplyAsync(this::get);
+    }
+
+    /**
+     * Lease an instance of this service for exclusive use, the lease must be closed once done.<br>
+     * This is the only way to get an instance of a pooled service, for other scopes the lease holds
+     * {@link #get()} and closing it does nothing.
+     *
+     * @return the leased instance
+     */
+    default ServiceLease<T> lease() {
+        return ServiceLease.of(get());
+    }
+
+    /**
+     * @return the instance of this service if created, empty otherwise.
+     * Thread scoped services return the instance of the calling thread, prototype services are always empty.
+     */
+    Optional<T> peek();
+
+    Services getSource();
+
+    /**
+     * Close the instances retained by this service scope, if they are {@link AutoCloseable}.
+     *
+     * @throws org.yah.sinject.exceptions.ServiceCloseException if an instance close failed
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,38 @@
+package org.yah.sinject;
+
+/**
+ * Exclusive use of a service instance, returned to its service on {@link #close()}.
+ *
+ * @see Service#lease()
+ */
+public interface ServiceLease<T> extends AutoCloseable {
+
+    /**
+     * Lease of an instance that is not owned by the lease, closing it does nothing.
+     */
+    static <T> ServiceLease<T> of(T instance) {
+        return new ServiceLease<>() {
+            @Override
+            public T get() {
+                return instance;
+            }
+
+            @Override
+            public void close() {
+                // not leased
+            }
+        };
+    }
+
+    /**
+     * @return the leased instance, must not be used after {@link #close()}
+     */
+    T get();
+
+    /**
+     * Return the instance to its service.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,127 @@
+package org.yah.sinject;
+
+import org.yah.sinject.exceptions.ConflictingServicesException;
+import org.yah.sinject.exceptions.NoSuchServiceException;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Result of a service lookup, see {@link ServiceResolver#tryService(String, Type)}: the top most priority
+ * candidates matching a name and a type.<br>
+ * A lookup is resolved if exactly one candidate matched. Failures are not thrown: the exception is only created
+ * when the failure is reported, using {@link #get()} or {@link #exception()}.
+ */
+public final class ServiceResolution {
+
+    public static ServiceResolution resolved(Service<?> service) {
+        Objects.requireNonNull(service, "service is null");
+        return new ServiceResolution(service.name(), service.type(), List.of(service), null);
+    }
+
+    public static ServiceResolution notFound(String name, Type type) {
+        return new ServiceResolution(name, type, List.of(), null);
+    }
+
+    /**
+     * @param candidates the top most priority candidates, sorted by priority
+     */
+    public static ServiceResolution of(String name, Type type, Collection<? extends Service<?>> candidates) {
+        return new ServiceResolution(name, type, List.copyOf(candidates), null);
+    }
+
+    /**
+     * A failed resolution whose exception is already created.
+     */
+    public static ServiceResolution failed(ServiceResolutionException exception) {
+        Objects.requireNonNull(exception, "exception is null");
+        return new ServiceResolution(exception.getName().orElse(null), exception.getType(), List.of(), exception);
+    }
+
+    private final String name;
+    private final Type type;
+    private final List<Service<?>> candidates;
+    private final ServiceResolutionException exception;
+
+    private ServiceResolution(String name, Type type, List<Service<?>> candidates,
+                              ServiceResolutionException exception) {
+        this.name = name;
+        this.type = Objects.requireNonNull(type, "type is null");
+        this.candidates = candidates;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the requested name, null if resolved by type only
+     */
+    public String name() {
+        return name;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return the top most priority candidates
+     */
+    public List<Service<?>> candidates() {
+        return candidates;
+    }
+
+    public boolean isResolved() {
+        return exception == null && candidates.size() == 1;
+    }
+
+    /**
+     * @return true if more than one candidate matched with the same priority
+     */
+    public boolean isConflicting() {
+        return candidates.size() > 1;
+    }
+
+    /**
+     * @return the single top most priority candidate
+     * @throws NoSuchServiceException       If no candidate matched
+     * @throws ConflictingServicesException If more than one candidate matched with the same priority
+     */
+    public Service<?> get() throws ServiceResolutionException {
+        if (isResolved())
+            return candidates.get(0);
+        throw exception();
+    }
+
+    /**
+     * @return the resolved service, empty if not resolved
+     */
+    public Optional<Service<?>> optional() {
+        return isResolved() ? Optional.of(candidates.get(0)) : Optional.empty();
+    }
+
+    /**
+     * @return a new exception describing the failure, or the failure exception if already created
+     * @throws IllegalStateException if resolved
+     */
+    public ServiceResolutionException exception() {
+        if (exception != null)
+            return exception;
+        if (candidates.isEmpty())
+            return new NoSuchServiceException(name, type);
+        if (candidates.size() > 1)
+            return new ConflictingServicesException(name, type, candidates);
+        throw new IllegalStateException("service is resolved");
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceResolution{" +
+                "name='" + name + '\'' +
+                ", type=" + type +
+                ", candidates=" + candidates +
+                '}';
+    }
+}
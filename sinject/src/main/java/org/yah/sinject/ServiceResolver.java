@@ -24,6 +24,19 @@ public interface ServiceResolver {
      */
     Service<?> service(String name, Type type) throws ServiceResolutionException;
 
+    /**
+     * Find a service like {@link #service(String, Type)}, without throwing resolution failures.
+     *
+     * @return the resolution result, exception are only created when reported
+     */
+    default ServiceResolution tryService(String name, Type type) {
+        try {
+            return ServiceResolution.resolved(service(name, type));
+        } catch (ServiceResolutionException e) {
+            return ServiceResolution.failed(e);
+        }
+    }
+
     default Service<?> service(ServiceDefinition definition) throws NoSuchServiceException, ConflictingServicesException {
         return service(definition.name(), definition.type());
     }
@@ -4,6 +4,7 @@ import org.yah.sinject.exceptions.ConflictingServicesException;
 import org.yah.sinject.exceptions.NoSuchServiceException;
 
 import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -61,6 +62,40 @@ public interface Services extends ServiceResolver, Iterable<Service<?>>, AutoClo
         return service(parametric).get();
     }
 
+    /**
+     * Asynchronous {@link #get(String, Class)}, see {@link Service#getAsync()}.
+     *
+     * @return a future completed with the instance, or completed exceptionally if the service is not found or
+     * its creation failed
+     */
+    default <T> CompletableFuture<T> getAsync(String name, Class<T> type) {
+        final Service<T> service;
+        try {
+            service = service(name, type);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return service.getAsync();
+    }
+
+    default <T> CompletableFuture<T> getAsync(Class<T> type) {
+        return getAsync(null, type);
+    }
+
+    default <T> CompletableFuture<T> getAsync(String name, Parametric<T> parametric) {
+        final Service<T> service;
+        try {
+            service = service(name, parametric);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return service.getAsync();
+    }
+
+    default <T> CompletableFuture<T> getAsync(Parametric<T> parametric) {
+        return getAsync(null, parametric);
+    }
+
     @Override
     void close();
 
@@ -0,0 +1,33 @@
+package org.yah.sinject.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.CONSTRUCTOR})
+public @interface Service {
+
+    String value() default "";
+
+    String name() default "";
+
+    int priority() default 0;
+
+    /**
+     * @return the name of the service scope: "singleton", "prototype", "thread" or a custom registered scope
+     */
+    String scope() default "singleton";
+
+    /**
+     * @return the name of a <code>boolean</code> method of the declaring class, with injected parameters, evaluated
+     * at build to decide whether the service exists. Empty for unconditional services.<br>
+     * The condition keeps an <code>Optional</code> returning method from being invoked at build: the method is only
+     * invoked on first instance creation, an empty result then failing the creation.
+     */
+    String condition() default "";
+
+    int TOP_PRIORITY = Integer.MIN_VALUE;
+    int LOWEST_PRIORITY = Integer.MAX_VALUE;
+}
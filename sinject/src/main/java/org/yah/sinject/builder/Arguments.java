@@ -0,0 +1,51 @@
+package org.yah.sinject.builder;
+
+import java.util.Objects;
+
+/**
+ * Arguments of an {@link Invoker} invocation, read by index so that invoking does not need an arguments array.
+ */
+public interface Arguments {
+
+    /**
+     * @param values the arguments values, not copied
+     */
+    static Arguments of(Object... values) {
+        Objects.requireNonNull(values, "values is null");
+        return new Arguments() {
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public Object get(int index) {
+                return values[index];
+            }
+
+            @Override
+            public Object[] toArray() {
+                return values;
+            }
+        };
+    }
+
+    int size();
+
+    /**
+     * @return the value of the argument at <code>index</code>
+     */
+    Object get(int index);
+
+    /**
+     * @return an array of the arguments values
+     */
+    default Object[] toArray() {
+        final Object[] values = new Object[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+}
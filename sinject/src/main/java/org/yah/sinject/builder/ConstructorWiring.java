@@ -0,0 +1,106 @@
+package org.yah.sinject.builder;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * A candidate constructor of a service class.
+ */
+public final class ConstructorWiring<T> extends ExecutableWiring<T> {
+
+    public static <T> Builder<T> builder(Class<T> declaringClass) {
+        return new Builder<>(declaringClass);
+    }
+
+    private final boolean annotated;
+    private final String name;
+    private final int priority;
+    private final String scope;
+
+    private ConstructorWiring(Builder<T> builder) {
+        super(builder);
+        this.annotated = builder.annotated;
+        this.name = builder.name;
+        this.priority = builder.priority;
+        this.scope = builder.scope;
+    }
+
+    /**
+     * @return true if this constructor is annotated with {@link org.yah.sinject.annotations.Service}
+     */
+    public boolean isAnnotated() {
+        return annotated;
+    }
+
+    /**
+     * @return the service name given by the constructor annotation, if any
+     */
+    public Optional<String> getName() {
+        return Optional.ofNullable(name);
+    }
+
+    /**
+     * @return the service priority given by the constructor annotation, if annotated
+     */
+    public OptionalInt getPriority() {
+        return annotated ? OptionalInt.of(priority) : OptionalInt.empty();
+    }
+
+    /**
+     * @return the service scope given by the constructor annotation, if annotated
+     */
+    public Optional<String> getScope() {
+        return annotated ? Optional.of(scope) : Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return getDeclaringClass().getName() + parametersString();
+    }
+
+    public static final class Builder<T> extends AbstractBuilder<T, Builder<T>> {
+        private boolean annotated;
+        private String name;
+        private int priority;
+        private String scope;
+
+        private Builder(Class<T> declaringClass) {
+            super(declaringClass);
+        }
+
+        /**
+         * Mark this constructor as annotated with {@link org.yah.sinject.annotations.Service}
+         *
+         * @param name     the service name, null if not defined by the annotation
+         * @param priority the service priority
+         */
+        public Builder<T> withAnnotation(String name, int priority) {
+            return withAnnotation(name, priority, ServiceScope.SINGLETON);
+        }
+
+        /**
+         * Mark this constructor as annotated with {@link org.yah.sinject.annotations.Service}
+         *
+         * @param name     the service name, null if not defined by the annotation
+         * @param priority the service priority
+         * @param scope    the service scope name
+         */
+        public Builder<T> withAnnotation(String name, int priority, String scope) {
+            this.annotated = true;
+            this.name = name;
+            this.priority = priority;
+            this.scope = Objects.requireNonNull(scope, "scope is null");
+            return this;
+        }
+
+        public ConstructorWiring<T> build() {
+            return new ConstructorWiring<>(this);
+        }
+
+        @Override
+        protected Builder<T> getThis() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.yah.sinject.builder;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Describe how to invoke a service constructor or method without reflection.
+ *
+ * @see ServiceWiring
+ */
+public abstract class ExecutableWiring<T> {
+
+    private final Class<?> declaringClass;
+    private final List<Parameter> parameters;
+    private final Invoker<? extends T> invoker;
+
+    protected ExecutableWiring(AbstractBuilder<T, ?> builder) {
+        this.declaringClass = builder.declaringClass;
+        this.parameters = List.copyOf(builder.parameters);
+        this.invoker = Objects.requireNonNull(builder.invoker, "invoker is null");
+    }
+
+    public Class<?> getDeclaringClass() {
+        return declaringClass;
+    }
+
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    public Invoker<? extends T> getInvoker() {
+        return invoker;
+    }
+
+    protected String parametersString() {
+        return parameters.stream()
+                .map(p -> p.getType().getTypeName())
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    public static final class Parameter {
+        private final String name;
+        private final Type type;
+
+        public Parameter(String name, Type type) {
+            this.name = Objects.requireNonNull(name, "name is null");
+            this.type = Objects.requireNonNull(type, "type is null");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Type getType() {
+            return type;
+        }
+    }
+
+    public static abstract class AbstractBuilder<T, SELF extends AbstractBuilder<T, SELF>> {
+        protected final Class<?> declaringClass;
+        private final List<Parameter> parameters = new ArrayList<>();
+        private Invoker<? extends T> invoker;
+
+        protected AbstractBuilder(Class<?> declaringClass) {
+            this.declaringClass = Objects.requireNonNull(declaringClass, "declaringClass is null");
+        }
+
+        public SELF withParameter(String name, Type type) {
+            parameters.add(new Parameter(name, type));
+            return getThis();
+        }
+
+        public SELF withInvoker(Invoker<? extends T> invoker) {
+            this.invoker = invoker;
+            return getThis();
+        }
+
+        protected abstract SELF getThis();
+    }
+}
@@ -0,0 +1,23 @@
+package org.yah.sinject.builder;
+
+/**
+ * Invoke a service constructor or method with its resolved arguments.
+ */
+@FunctionalInterface
+public interface Invoker<T> {
+
+    /**
+     * @param arguments the invocation arguments, starting with the target instance for non static methods
+     * @return the created instance, or the method result
+     */
+    T invoke(Arguments arguments) throws Exception;
+
+    /**
+     * @param arguments the invocation arguments, starting with the target instance for non static methods
+     * @return the created instance, or the method result
+     */
+    default T invoke(Object[] arguments) throws Exception {
+        return invoke(Arguments.of(arguments));
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.yah.sinject.builder;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A method annotated with {@link org.yah.sinject.annotations.Service}.<br>
+ * The invoker arguments start with the declaring class instance if the method is not static.
+ */
+public final class MethodWiring extends ExecutableWiring<Object> {
+
+    public static Builder builder(Class<?> declaringClass, String methodName) {
+        return new Builder(declaringClass, methodName);
+    }
+
+    private final String methodName;
+    private final Type returnType;
+    private final boolean staticMethod;
+    private final String name;
+    private final int priority;
+    private final String scope;
+    private final MethodWiring condition;
+
+    private MethodWiring(Builder builder) {
+        super(builder);
+        this.methodName = builder.methodName;
+        this.returnType = Objects.requireNonNull(builder.returnType, "returnType is null");
+        this.staticMethod = builder.staticMethod;
+        this.name = builder.name != null ? builder.name : methodName;
+        this.priority = builder.priority;
+        this.scope = builder.scope;
+        this.condition = builder.condition;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * @return the method generic return type
+     */
+    public Type getReturnType() {
+        return returnType;
+    }
+
+    public boolean isStatic() {
+        return staticMethod;
+    }
+
+    /**
+     * @return the service name, the method name if not defined by the annotation
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the <code>boolean</code> method deciding whether the service exists, see
+     * {@link org.yah.sinject.annotations.Service#condition()}
+     */
+    public Optional<MethodWiring> getCondition() {
+        return Optional.ofNullable(condition);
+    }
+
+    @Override
+    public String toString() {
+        return getDeclaringClass().getName() + "." + methodName + parametersString();
+    }
+
+    public static final class Builder extends AbstractBuilder<Object, Builder> {
+        private final String methodName;
+        private Type returnType;
+        private boolean staticMethod;
+        private String name;
+        private int priority;
+        private String scope = ServiceScope.SINGLETON;
+        private MethodWiring condition;
+
+        private Builder(Class<?> declaringClass, String methodName) {
+            super(declaringClass);
+            this.methodName = Objects.requireNonNull(methodName, "methodName is null");
+        }
+
+        public Builder withReturnType(Type returnType) {
+            this.returnType = returnType;
+            return this;
+        }
+
+        public Builder withStatic(boolean staticMethod) {
+            this.staticMethod = staticMethod;
+            return this;
+        }
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withPriority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder withScope(String scope) {
+            this.scope = Objects.requireNonNull(scope, "scope is null");
+            return this;
+        }
+
+        public Builder withCondition(MethodWiring condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public MethodWiring build() {
+            return new MethodWiring(this);
+        }
+
+        @Override
+        protected Builder getThis() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.yah.sinject.builder;
+
+import org.yah.sinject.ServiceLease;
+
+import java.util.Optional;
+
+/**
+ * Hold the instance(s) of a service according to its {@link ServiceScope}.
+ */
+public interface ScopedInstance<T> {
+
+    /**
+     * @return the instance for the current scope, creating it if needed
+     */
+    T get();
+
+    /**
+     * @return a lease of an instance for the current scope, see {@link org.yah.sinject.Service#lease()}
+     */
+    default ServiceLease<T> lease() {
+        return ServiceLease.of(get());
+    }
+
+    /**
+     * @return the instance for the current scope if already created, empty otherwise
+     */
+    Optional<T> peek();
+
+    /**
+     * Close the {@link AutoCloseable} instances retained by this scope.
+     *
+     * @throws org.yah.sinject.exceptions.ServiceCloseException if an instance close failed, after closing all the
+     *                                                          other instances
+     */
+    void close();
+
+}
@@ -9,4 +9,11 @@ public interface ServiceDeclaration<T> extends ServiceDefinition {
 
     Optional<InstanceSupplier<? extends T>> createInstanceSupplier(ServiceResolver resolver);
 
+    /**
+     * @return the name of the {@link ServiceScope} of this service
+     */
+    default String scope() {
+        return ServiceScope.SINGLETON;
+    }
+
 }
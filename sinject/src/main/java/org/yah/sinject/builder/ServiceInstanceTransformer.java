@@ -0,0 +1,18 @@
+package org.yah.sinject.builder;
+
+import java.lang.reflect.Type;
+
+public interface ServiceInstanceTransformer {
+
+    <T> T transform(ServiceDeclaration<? super T> declaration, T instance);
+
+    /**
+     * The transformer is only applied to the instances of the services whose declared type is assignable to this
+     * type, other services instances are created without calling this transformer.
+     *
+     * @return the type of the services this transformer applies to, all services by default
+     */
+    default Type targetType() {
+        return Object.class;
+    }
+}
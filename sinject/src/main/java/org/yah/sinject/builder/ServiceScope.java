@@ -0,0 +1,41 @@
+package org.yah.sinject.builder;
+
+import org.yah.sinject.ServiceDefinition;
+
+import java.util.function.Supplier;
+
+/**
+ * Define the lifecycle of the instances of a service.<br>
+ * A service declaration references its scope by {@link #name()}, see {@link ServiceDeclaration#scope()}.
+ * Built-in scopes are {@link #SINGLETON}, {@link #PROTOTYPE} and {@link #THREAD}, custom scopes are registered
+ * with <code>DefaultServicesBuilder.withScope(ServiceScope)</code>.
+ */
+public interface ServiceScope {
+
+    /**
+     * One instance for the services lifetime, this is the default scope.
+     */
+    String SINGLETON = "singleton";
+
+    /**
+     * A new instance on each {@link org.yah.sinject.Service#get()}, never retained by the service.
+     */
+    String PROTOTYPE = "prototype";
+
+    /**
+     * One instance per thread.
+     */
+    String THREAD = "thread";
+
+    String name();
+
+    /**
+     * Create the instance holder of a service.
+     *
+     * @param service the service definition
+     * @param factory create a new fully transformed instance of the service, creation errors are thrown as
+     *                {@link org.yah.sinject.exceptions.ServiceCreationException}
+     */
+    <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory);
+
+}
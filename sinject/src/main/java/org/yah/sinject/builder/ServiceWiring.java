@@ -0,0 +1,35 @@
+package org.yah.sinject.builder;
+
+import java.util.List;
+
+/**
+ * Reflection free wiring of a class using {@link org.yah.sinject.annotations.Service}, generated at compile time
+ * by the <code>sinject-processor</code> annotation processor.<br>
+ * The generated class is named after the wired class binary name, '$' being replaced by '_', followed by
+ * {@link #CLASS_NAME_SUFFIX}. When found, it is used by the services builder instead of reflection.
+ */
+public interface ServiceWiring<T> {
+
+    String CLASS_NAME_SUFFIX = "_SinjectWiring";
+
+    static String wiringClassName(Class<?> type) {
+        final String packageName = type.getPackageName();
+        String simpleName = type.getName();
+        if (!packageName.isEmpty())
+            simpleName = simpleName.substring(packageName.length() + 1);
+        simpleName = simpleName.replace('$', '_') + CLASS_NAME_SUFFIX;
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * @return the candidate constructors: only the annotated constructor if any, all declared constructors
+     * otherwise. Empty for abstract classes.
+     */
+    List<ConstructorWiring<T>> constructors();
+
+    /**
+     * @return the annotated methods declared by the wired class, inherited methods excluded.
+     */
+    List<MethodWiring> methods();
+
+}
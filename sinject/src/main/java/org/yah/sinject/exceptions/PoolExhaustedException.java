@@ -0,0 +1,13 @@
+package org.yah.sinject.exceptions;
+
+import org.yah.sinject.ServiceDefinition;
+
+import java.time.Duration;
+
+public class PoolExhaustedException extends ServiceCreationException {
+
+    public PoolExhaustedException(ServiceDefinition definition, int maxSize, Duration timeout) {
+        super(definition, "no instance available after " + timeout + ", all " + maxSize + " instances are leased");
+    }
+
+}
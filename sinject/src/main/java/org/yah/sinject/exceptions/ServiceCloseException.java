@@ -0,0 +1,11 @@
+package org.yah.sinject.exceptions;
+
+import org.yah.sinject.ServiceDefinition;
+
+public class ServiceCloseException extends RuntimeException {
+
+    public ServiceCloseException(ServiceDefinition definition, Throwable cause) {
+        super("Error closing service " + definition + ": " + cause.getMessage(), cause);
+    }
+
+}
@@ -0,0 +1,253 @@
+package org.yah.sinject.impl;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.yah.sinject.ServiceDefinition;
+
+import java.lang.reflect.*;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoized {@link TypeUtils#isAssignable(Type, Type)}, shared by all type matching in the library.<br>
+ * Results are stored in a {@link ClassValue} of the class with the most specific class loader involved in the
+ * query, so that cached entries never retain a class loader that could otherwise be unloaded. Queries on bootstrap
+ * classes only are stored in the cache of their target raw class.
+ * Queries involving type variables, or classes from unrelated class loaders, are not cached.<br>
+ * Each class cache is bounded to {@link #MAX_ENTRIES_PER_CLASS} entries, and is cleared once full.
+ */
+public final class AssignabilityCache {
+
+    public static final int MAX_ENTRIES_PER_CLASS = 1024;
+
+    private static final ClassValue<ConcurrentMap<Key, Boolean>> CACHES = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Key, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder uncached = new LongAdder();
+
+    private AssignabilityCache() {
+    }
+
+    /**
+     * @return true if <code>from</code> can be assigned to <code>to</code>, following
+     * {@link TypeUtils#isAssignable(Type, Type)} rules
+     */
+    public static boolean isAssignable(Type from, Type to) {
+        Objects.requireNonNull(from, "from is null");
+        Objects.requireNonNull(to, "to is null");
+        if (from == to)
+            return true;
+        if (from instanceof Class && to instanceof Class)
+            return ClassUtils.isAssignable((Class<?>) from, (Class<?>) to);
+
+        final Class<?> anchor = anchor(from, to);
+        if (anchor == null) {
+            uncached.increment();
+            return TypeUtils.isAssignable(from, to);
+        }
+
+        final ConcurrentMap<Key, Boolean> cache = CACHES.get(anchor);
+        final Key key = new Key(from, to);
+        final Boolean cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final boolean assignable = TypeUtils.isAssignable(from, to);
+        if (cache.size() >= MAX_ENTRIES_PER_CLASS)
+            cache.clear();
+        cache.putIfAbsent(key, assignable);
+        return assignable;
+    }
+
+    /**
+     * Cached equivalent of {@link ServiceDefinition#isAssignableTo(Type)}.
+     */
+    public static boolean isAssignableTo(ServiceDefinition definition, Type type) {
+        return isAssignable(definition.type(), type);
+    }
+
+    /**
+     * Cached equivalent of {@link ServiceDefinition#match(String, Type)}.
+     */
+    public static boolean match(ServiceDefinition definition, String name, Type type) {
+        if (name != null && !definition.name().equals(name))
+            return false;
+        return isAssignableTo(definition, type);
+    }
+
+    public static Statistics statistics() {
+        return new Statistics(hits.sum(), misses.sum(), uncached.sum());
+    }
+
+    /**
+     * The raw class of <code>to</code> is visited first, so that queries involving bootstrap classes only are spread
+     * over the cache of their target class, instead of all sharing the same one.
+     *
+     * @return the class holding the cached result of the query, or null if it can not be cached
+     */
+    static Class<?> anchor(Type from, Type to) {
+        return anchor(from, anchor(to, TypeUtils.getRawType(to, null)));
+    }
+
+    /**
+     * @param type    the type to inspect
+     * @param current the anchor found so far
+     * @return the class whose class loader sees every class of <code>type</code> and <code>current</code>, or null
+     * if there is none, or if <code>type</code> can not be cached
+     */
+    private static Class<?> anchor(Type type, Class<?> current) {
+        if (current == null)
+            return null;
+        if (type instanceof Class) {
+            final Class<?> c = (Class<?>) type;
+            return c.isArray() ? anchor(c.getComponentType(), current) : deepest(current, c);
+        }
+        if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterizedType = (ParameterizedType) type;
+            current = anchor(parameterizedType.getRawType(), current);
+            if (parameterizedType.getOwnerType() != null)
+                current = anchor(parameterizedType.getOwnerType(), current);
+            return anchor(parameterizedType.getActualTypeArguments(), current);
+        }
+        if (type instanceof WildcardType) {
+            final WildcardType wildcardType = (WildcardType) type;
+            current = anchor(wildcardType.getUpperBounds(), current);
+            return anchor(wildcardType.getLowerBounds(), current);
+        }
+        if (type instanceof GenericArrayType)
+            return anchor(((GenericArrayType) type).getGenericComponentType(), current);
+        // type variables are resolved against their declaration, not cached
+        return null;
+    }
+
+    private static Class<?> anchor(Type[] types, Class<?> current) {
+        for (Type type : types) {
+            current = anchor(type, current);
+        }
+        return current;
+    }
+
+    private static Class<?> deepest(Class<?> a, Class<?> b) {
+        final ClassLoader aLoader = a.getClassLoader();
+        final ClassLoader bLoader = b.getClassLoader();
+        if (aLoader == bLoader || bLoader == null)
+            return a;
+        if (aLoader == null || isAncestor(aLoader, bLoader))
+            return b;
+        if (isAncestor(bLoader, aLoader))
+            return a;
+        return null;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        for (ClassLoader current = loader.getParent(); current != null; current = current.getParent()) {
+            if (current == ancestor)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Structural hash of a type, consistent with {@link TypeUtils#equals(Type, Type)}, whatever the
+     * implementations of the compared types.
+     */
+    static int hash(Type type) {
+        if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterizedType = (ParameterizedType) type;
+            return 31 * hash(parameterizedType.getRawType()) + hash(parameterizedType.getActualTypeArguments());
+        }
+        if (type instanceof WildcardType) {
+            final WildcardType wildcardType = (WildcardType) type;
+            final Type[] upperBounds = wildcardType.getUpperBounds();
+            final int upperHash = hash(upperBounds.length == 0 ? new Type[]{Object.class} : upperBounds);
+            return 17 * upperHash + hash(wildcardType.getLowerBounds()) + 1;
+        }
+        if (type instanceof GenericArrayType)
+            return 7 * hash(((GenericArrayType) type).getGenericComponentType()) + 3;
+        return type.hashCode();
+    }
+
+    private static int hash(Type[] types) {
+        int hash = 1;
+        for (Type type : types) {
+            hash = 31 * hash + hash(type);
+        }
+        return hash;
+    }
+
+    private static final class Key {
+        private final Type from;
+        private final Type to;
+        private final int hash;
+
+        private Key(Type from, Type to) {
+            this.from = from;
+            this.to = to;
+            this.hash = 31 * hash(from) + hash(to);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hash == key.hash && TypeUtils.equals(from, key.from) && TypeUtils.equals(to, key.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public static final class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long uncachedCount;
+
+        private Statistics(long hitCount, long missCount, long uncachedCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.uncachedCount = uncachedCount;
+        }
+
+        public long hitCount() {
+            return hitCount;
+        }
+
+        public long missCount() {
+            return missCount;
+        }
+
+        /**
+         * @return number of queries that could not be cached (type variables, unrelated class loaders)
+         */
+        public long uncachedCount() {
+            return uncachedCount;
+        }
+
+        public double hitRate() {
+            final long cacheable = hitCount + missCount;
+            return cacheable == 0 ? 1.0 : (double) hitCount / cacheable;
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", uncachedCount=" + uncachedCount +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.yah.sinject.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for the service instantiations that block, on I/O for instance.<br>
+ * This release uses a shared cached pool of daemon threads, the Java 21 release of this class (see
+ * <code>src/main/java21</code>) uses virtual threads.
+ */
+final class BlockingExecutors {
+
+    private BlockingExecutors() {
+    }
+
+    static Executor instantiationExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "sinject-instantiation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,206 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceLease;
+import org.yah.sinject.Services;
+import org.yah.sinject.builder.InstanceSupplier;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.ServiceCreationException;
+import org.yah.sinject.impl.scopes.SingletonScope;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class DefaultService<T> implements Service<T> {
+
+    private final Services source;
+    private final ServiceDeclaration<T> declaration;
+    private final InstanceSupplier<? extends T> instanceSupplier;
+    private final ServiceScope scope;
+    private final ScopedInstance<T> scopedInstance;
+
+    /**
+     * singleton instance being created by {@link #getAsync()}, shared by concurrent callers
+     */
+    private final AtomicReference<CompletableFuture<T>> pendingInstance = new AtomicReference<>();
+
+    /**
+     * duration of the first instance creation, excluding its dependencies creation, -1 until created
+     */
+    private volatile long instantiationNanos = -1;
+
+    /**
+     * access and creation counters, null unless the services metrics are enabled
+     */
+    private ServiceMetrics metrics;
+
+    public DefaultService(Services source, ServiceDeclaration<T> declaration,
+                          InstanceSupplier<? extends T> instanceSupplier) {
+        this(source, declaration, instanceSupplier, SingletonScope.INSTANCE);
+    }
+
+    public DefaultService(Services source, ServiceDeclaration<T> declaration,
+                          InstanceSupplier<? extends T> instanceSupplier, ServiceScope scope) {
+        this.source = Objects.requireNonNull(source, "source is null");
+        this.declaration = Objects.requireNonNull(declaration, "declaration is null");
+        this.instanceSupplier = Objects.requireNonNull(instanceSupplier, "factory is null");
+        this.scope = Objects.requireNonNull(scope, "scope is null");
+        this.scopedInstance = scope.create(this, this::create);
+    }
+
+    @Override
+    public Type type() {
+        return declaration.type();
+    }
+
+    @Override
+    public String name() {
+        return declaration.name();
+    }
+
+    @Override
+    public int priority() {
+        return declaration.priority();
+    }
+
+    public ServiceDeclaration<T> getDeclaration() {
+        return declaration;
+    }
+
+    public ServiceScope getScope() {
+        return scope;
+    }
+
+    @Override
+    public T get() {
+        final ServiceMetrics m = metrics;
+        if (m != null)
+            m.access();
+        return scopedInstance.get();
+    }
+
+    /**
+     * The instance and its dependencies are created on the services async executor. Concurrent callers of a
+     * singleton service share the same pending creation.<br>
+     * Other scopes {@link #get()} the instance on the async executor for each call, so a thread scoped service
+     * completes with the instance of the executor thread.
+     */
+    @Override
+    public CompletableFuture<T> getAsync() {
+        final Executor executor = source instanceof DefaultServices ?
+                ((DefaultServices) source).asyncExecutor() : ForkJoinPool.commonPool();
+        if (!isSingleton(this))
+            return complete(new CompletableFuture<>(), CompletableFuture.supplyAsync(this::get, executor));
+
+        final Optional<T> instance = peek();
+        if (instance.isPresent())
+            return CompletableFuture.completedFuture(instance.get());
+
+        final CompletableFuture<T> created = new CompletableFuture<>();
+        if (!pendingInstance.compareAndSet(null, created)) {
+            final CompletableFuture<T> pending = pendingInstance.get();
+            // completed and cleared in between, the instance is now available
+            return pending != null ? pending : getAsync();
+        }
+        // once done, the instance is peeked, or a failed creation can be retried
+        created.whenComplete((i, e) -> pendingInstance.compareAndSet(created, null));
+        return complete(created, CompletableFuture.supplyAsync(this::get, executor));
+    }
+
+    /**
+     * Complete <code>target</code> with the outcome of <code>creation</code>, unwrapping the creation errors.
+     */
+    private CompletableFuture<T> complete(CompletableFuture<T> target, CompletableFuture<? extends T> creation) {
+        creation.whenComplete((instance, error) -> {
+            if (error == null) {
+                target.complete(instance);
+            } else {
+                if (error instanceof CompletionException && error.getCause() != null)
+                    error = error.getCause();
+                if (!(error instanceof ServiceCreationException) && !(error instanceof Error))
+                    error = new ServiceCreationException(this, "error creating service instance", error);
+                target.completeExceptionally(error);
+            }
+        });
+        return target;
+    }
+
+    static boolean isSingleton(Service<?> service) {
+        return !(service instanceof DefaultService) ||
+                ServiceScope.SINGLETON.equals(((DefaultService<?>) service).getScope().name());
+    }
+
+    private T create() {
+        if (instantiationNanos >= 0)
+            return createInstance();
+        final SelfTime selfTime = SelfTime.start();
+        try {
+            return createInstance();
+        } finally {
+            instantiationNanos = selfTime.stop();
+        }
+    }
+
+    private T createInstance() {
+        final ServiceMetrics m = metrics;
+        try (Tracing.Span ignored = Tracing.get().instantiation(this, scope.name())) {
+            if (m == null)
+                return instanceSupplier.get();
+            final long start = System.nanoTime();
+            final T instance = instanceSupplier.get();
+            m.creation(System.nanoTime() - start);
+            return instance;
+        } catch (Exception e) {
+            throw new ServiceCreationException(this, "error creating service instance", e);
+        }
+    }
+
+    /**
+     * @return the duration of the first instance creation, excluding its dependencies creation, -1 if no instance
+     * was created
+     */
+    long instantiationNanos() {
+        return instantiationNanos;
+    }
+
+    /**
+     * @param metrics the counters of this service, set before the service is published
+     */
+    void enableMetrics(ServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ServiceLease<T> lease() {
+        return scopedInstance.lease();
+    }
+
+    @Override
+    public Optional<T> peek() {
+        return scopedInstance.peek();
+    }
+
+    @Override
+    public Services getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return ServiceDefinition.toString(this);
+    }
+
+    @Override
+    public void close() {
+        scopedInstance.close();
+    }
+}
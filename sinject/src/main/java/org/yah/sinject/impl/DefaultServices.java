@@ -0,0 +1,378 @@
+package org.yah.sinject.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.Parametric;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.Services;
+import org.yah.sinject.TypedServices;
+import org.yah.sinject.builder.InstanceSupplier;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.ConflictingServicesException;
+import org.yah.sinject.exceptions.DuplicateServiceException;
+import org.yah.sinject.exceptions.NoSuchServiceException;
+import org.yah.sinject.impl.scopes.SingletonScope;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class DefaultServices implements Services {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultServices.class);
+
+    public static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    public static DefaultServicesBuilder builder() {
+        return new DefaultServicesBuilder();
+    }
+
+    /**
+     * sorted by priority
+     * Use {@link java.util.RandomAccess} collection to ensure fast insert position lookup
+     * However this will make the insertion ugly
+     */
+    protected final List<Service<?>> services = new ArrayList<>();
+
+    /**
+     * services grouped by name and sorted by priority, for conflicts checks and named lookups before freeze
+     */
+    private final Map<String, List<Service<?>>> servicesByName = new HashMap<>();
+
+    /**
+     * accept services after {@link #freeze()}, see {@link #enableDynamicRegistration()}
+     */
+    private volatile boolean dynamicRegistration;
+
+    /**
+     * serialize the dynamic registrations, readers never take it
+     */
+    private final Object registrationLock = new Object();
+
+    /**
+     * frozen parent, resolving the services not found in this services
+     */
+    private final DefaultServices parent;
+
+    /**
+     * dependencies between services, filled by {@link DefaultServicesBuilder}
+     */
+    private final DependencyGraph dependencyGraph = new DependencyGraph();
+
+    private Executor closeExecutor;
+    private Duration closeTimeout = DEFAULT_CLOSE_TIMEOUT;
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * resolution index, created on {@link #freeze()}, replaced by each dynamic registration
+     */
+    private volatile ServiceIndex index;
+
+    /**
+     * runtime counters, null unless enabled. Not volatile: published by the index write following its assignment
+     */
+    private ServicesMetrics metrics;
+
+    public DefaultServices() {
+        this(null);
+    }
+
+    /**
+     * Create services inheriting the services of a parent.<br>
+     * A frozen {@link DefaultServices} parent is not copied: the parent services are looked up through the parent
+     * index, with the same priority rules as if they were added to these services. Other parents are copied.
+     *
+     * @param parent the parent services, can be null
+     */
+    public DefaultServices(Services parent) {
+        if (parent instanceof DefaultServices && ((DefaultServices) parent).index != null) {
+            this.parent = (DefaultServices) parent;
+        } else {
+            this.parent = null;
+            if (parent != null)
+                parent.forEach(this::add);
+        }
+    }
+
+    /**
+     * @return the services of this instance and its parent, sorted by priority
+     */
+    @Override
+    @Nonnull
+    public Iterator<Service<?>> iterator() {
+        final ServiceIndex current = index;
+        if (current != null)
+            return current.allServices().iterator();
+        if (parent != null)
+            return parent.index.merge(services).iterator();
+        return services.iterator();
+    }
+
+    @Override
+    public Spliterator<Service<?>> spliterator() {
+        final ServiceIndex current = index;
+        if (current != null)
+            return current.allServices().spliterator();
+        return Services.super.spliterator();
+    }
+
+    @Override
+    public Service<?> service(String name, Type type) throws NoSuchServiceException, ConflictingServicesException {
+        final ServiceResolution resolution = tryService(name, type);
+        if (!resolution.isResolved())
+            Tracing.get().resolutionFailed(resolution);
+        return resolution.get();
+    }
+
+    @Override
+    public ServiceResolution tryService(String name, Type type) {
+        final ServiceIndex current = index;
+        if (current != null) {
+            final ServiceResolution resolution = current.resolve(name, type);
+            final ServicesMetrics m = metrics;
+            if (m != null)
+                m.lookup(resolution);
+            return resolution;
+        }
+        // not frozen yet: named lookups only scan the services with that name
+        final List<Service<?>> candidates = name == null ? services :
+                servicesByName.getOrDefault(name, Collections.emptyList());
+        final ServiceResolution resolution = Resolution.resolve(candidates, name, type);
+        if (parent != null)
+            return Resolution.merge(parent.index.resolve(name, type), resolution);
+        return resolution;
+    }
+
+    @Override
+    public <V> TypedServices<V> services(Class<? super V> type) {
+        final ServiceIndex current = index;
+        if (current != null)
+            return current.view(type);
+        return FilteredServices.create(this, type);
+    }
+
+    @Override
+    public <V> TypedServices<V> services(Parametric<? super V> parametric) {
+        final ServiceIndex current = index;
+        if (current != null)
+            return current.view(parametric.getType());
+        return FilteredServices.create(this, parametric);
+    }
+
+    /**
+     * Close the services of this instance, see {@link #shutdown()}. Failures and timeouts are logged once.
+     */
+    @Override
+    public void close() {
+        final ShutdownReport report = shutdown();
+        if (!report.failures().isEmpty())
+            LOGGER.error("Error closing services, {}", report);
+        else if (!report.timedOut().isEmpty())
+            LOGGER.warn("Services close timed out, {}", report);
+    }
+
+    /**
+     * Close the services of this instance in reverse dependency order, the parent services are not closed if
+     * delegated to.<br>
+     * Services are closed on the close executor if any, independent services being closed concurrently. A service
+     * not closed within the close timeout is no longer waited for, and since it may still be closing, the services
+     * it depends on are kept open and reported in {@link ShutdownReport#keptOpen()}.<br>
+     * Without close executor, services are closed sequentially on the calling thread: each close runs to completion
+     * and the services slower than the close timeout are only reported as timed out once closed.
+     *
+     * @return the close outcome of each service
+     */
+    public ShutdownReport shutdown() {
+        final ServicesMetrics m = metrics;
+        if (m != null)
+            m.unregisterMBean();
+        final ServiceIndex current = index;
+        return new Shutdown(current != null ? current.services() : services, dependencyGraph, closeExecutor,
+                closeTimeout).run();
+    }
+
+    /**
+     * Analyse the startup of these services: the resolution and instantiation duration of each service created by
+     * the builder, and the critical path bounding the startup duration.<br>
+     * Instantiation durations are read when called, lazily created services are reported once created.
+     */
+    public StartupReport startupReport() {
+        return new StartupReport(dependencyGraph);
+    }
+
+    /**
+     * Accept new services after {@link #freeze()}, for services discovered at runtime.<br>
+     * Each registration is checked for conflicts like {@link #add(Service)}, then atomically publishes a new
+     * index including the new service: lookups never block, and see either the previous or the new index. Typed
+     * views and children created before a registration do not see the new service.
+     */
+    public void enableDynamicRegistration() {
+        dynamicRegistration = true;
+    }
+
+    /**
+     * Enable the runtime metrics of the frozen services: lookups outcome, services access count and creation
+     * latency. Lookups done by the builder are not counted.
+     *
+     * @return the metrics, created on first call
+     * @throws IllegalStateException if not frozen
+     */
+    public ServicesMetrics enableMetrics() {
+        synchronized (registrationLock) {
+            final ServiceIndex current = index;
+            if (current == null)
+                throw new IllegalStateException("services are not frozen");
+            if (metrics == null) {
+                final ServicesMetrics created = new ServicesMetrics();
+                current.services().forEach(s -> attachMetrics(created, s));
+                metrics = created;
+                // publish the metrics to the readers
+                index = current;
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * @return the runtime metrics, empty unless enabled, see {@link #enableMetrics()}
+     */
+    public Optional<ServicesMetrics> metrics() {
+        final ServiceIndex current = index;
+        return current == null ? Optional.empty() : Optional.ofNullable(metrics);
+    }
+
+    private static void attachMetrics(ServicesMetrics metrics, Service<?> service) {
+        final ServiceMetrics serviceMetrics = metrics.register(service);
+        if (service instanceof DefaultService)
+            ((DefaultService<?>) service).enableMetrics(serviceMetrics);
+    }
+
+    /**
+     * @param executor the executor used to close services, null to close services sequentially
+     * @param timeout  maximum close duration of a service before it is reported as timed out
+     */
+    void configureShutdown(Executor executor, Duration timeout) {
+        this.closeExecutor = executor;
+        this.closeTimeout = Objects.requireNonNull(timeout, "timeout is null");
+    }
+
+    /**
+     * @param executor the executor creating the instances of {@link Service#getAsync()}
+     */
+    void configureAsync(Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "executor is null");
+    }
+
+    Executor asyncExecutor() {
+        return asyncExecutor;
+    }
+
+    DependencyGraph dependencyGraph() {
+        return dependencyGraph;
+    }
+
+    public <T> Service<T> add(ServiceDeclaration<T> declaration, InstanceSupplier<? extends T> supplier) {
+        return add(declaration, supplier, SingletonScope.INSTANCE);
+    }
+
+    public <T> Service<T> add(ServiceDeclaration<T> declaration, InstanceSupplier<? extends T> supplier,
+                              ServiceScope scope) {
+        final DefaultService<T> service = new DefaultService<>(this, declaration, supplier, scope);
+        add(service);
+        return service;
+    }
+
+    /**
+     * Add a new service, checking for type & name & priority conflict
+     * Using priority here is to make explicit the override of one service by another by changing priority
+     *
+     * @param service the service to add
+     * @throws DuplicateServiceException if a service assignable to the new service type and with the same name
+     *                                   and priority already exists.
+     * @throws IllegalStateException     if frozen without dynamic registration
+     */
+    public void add(Service<?> service) throws DuplicateServiceException {
+        if (index != null) {
+            if (!dynamicRegistration)
+                throw new IllegalStateException("freezed services can not be edited");
+            publish(service);
+            return;
+        }
+
+        final Service<?> other = findConflicting(service);
+        if (other != null)
+            throw new DuplicateServiceException(other, service);
+
+        insert(services, service);
+        insert(servicesByName.computeIfAbsent(service.name(), n -> new ArrayList<>(1)), service);
+    }
+
+    /**
+     * Insert a service in a list sorted by priority, after the services with the same priority.
+     */
+    private static void insert(List<Service<?>> sorted, Service<?> service) {
+        int index = Collections.binarySearch(sorted, service);
+        if (index < 0)
+            index = -index - 1;
+        else {
+            // insert after other equivalent priority
+            while (index < sorted.size() && sorted.get(index).priority() == service.priority())
+                index++;
+        }
+        sorted.add(index, service);
+    }
+
+    /**
+     * Prevent any further modification but dynamic registrations, and index the services for faster resolution.
+     * Does nothing if already frozen, keeping the dynamically registered services.
+     */
+    public void freeze() {
+        synchronized (registrationLock) {
+            if (index == null)
+                index = new ServiceIndex(services, parent != null ? parent.index : null);
+        }
+    }
+
+    /**
+     * Copy the current index services with the new service, and publish the new index.
+     */
+    private void publish(Service<?> service) throws DuplicateServiceException {
+        synchronized (registrationLock) {
+            final Service<?> other = findConflicting(service);
+            if (other != null)
+                throw new DuplicateServiceException(other, service);
+            final List<Service<?>> snapshot = new ArrayList<>(index.services().size() + 1);
+            snapshot.addAll(index.services());
+            insert(snapshot, service);
+            if (metrics != null)
+                attachMetrics(metrics, service);
+            index = new ServiceIndex(snapshot, parent != null ? parent.index : null);
+        }
+    }
+
+    private Service<?> findConflicting(Service<?> service) {
+        final ServiceIndex current = index;
+        final Iterable<Service<?>> candidates;
+        if (current != null)
+            candidates = current.candidates(service.name());
+        else if (service.name() == null)
+            candidates = services;
+        else
+            candidates = servicesByName.getOrDefault(service.name(), Collections.emptyList());
+        for (Service<?> candidate : candidates) {
+            if (isConflicting(candidate, service))
+                return candidate;
+        }
+        return parent != null ? parent.findConflicting(service) : null;
+    }
+
+    private static boolean isConflicting(Service<?> current, Service<?> newService) {
+        return AssignabilityCache.match(current, newService.name(), newService.type()) && current.priority() == newService.priority();
+    }
+
+}
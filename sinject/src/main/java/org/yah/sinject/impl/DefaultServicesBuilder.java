@@ -0,0 +1,591 @@
+package org.yah.sinject.impl;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.*;
+import org.yah.sinject.builder.InstanceSupplier;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ServiceDeclarationTransformer;
+import org.yah.sinject.builder.ServiceInstanceTransformer;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.CircularDependencyException;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+import org.yah.sinject.impl.builder.PlannedResolver;
+import org.yah.sinject.impl.builder.ServiceDeclarationBuilder;
+import org.yah.sinject.impl.builder.declarations.AnnotatedMethod;
+import org.yah.sinject.impl.builder.declarations.MethodServiceDeclaration;
+import org.yah.sinject.impl.builder.declarations.ServiceWirings;
+import org.yah.sinject.impl.scopes.Scopes;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.reflect.TypeUtils.getRawType;
+
+public class DefaultServicesBuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultServicesBuilder.class);
+
+    // get first type argument
+    public static Type optionalArgument(Type type) {
+        final Map<TypeVariable<?>, Type> arguments = TypeUtils.getTypeArguments(type, Optional.class);
+        if (arguments.isEmpty())
+            return Object.class;
+        return arguments.values().iterator().next();
+    }
+
+    /**
+     * Contains registered service declarations not yet created, indexed for lookup
+     */
+    private final PendingDeclarations declarations = new PendingDeclarations();
+
+    private Services parent;
+    private String name;
+    private Executor instantiationExecutor;
+    private Executor closeExecutor;
+    private Duration closeTimeout = DefaultServices.DEFAULT_CLOSE_TIMEOUT;
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
+    private Path wiringPlan;
+    private boolean dynamicRegistration;
+    private boolean metrics;
+    private boolean metricsMBean;
+    private final Map<String, ServiceScope> scopes = Scopes.builtins();
+
+    DefaultServicesBuilder() {
+    }
+
+    public DefaultServicesBuilder withName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public DefaultServicesBuilder withParent(Services parent) {
+        this.parent = parent;
+        return this;
+    }
+
+    /**
+     * Create all the services instances at build time using the {@link ForkJoinPool#commonPool()}.
+     *
+     * @see #withEagerInstantiation(Executor)
+     */
+    public DefaultServicesBuilder withEagerInstantiation() {
+        return withEagerInstantiation(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create all the singleton services instances at build time, instead of on first {@link Service#get()}.<br>
+     * Each service instance is created on <code>executor</code> as soon as its dependencies are created, so
+     * independent services are created concurrently.
+     *
+     * @param executor the executor used to create instances, null to disable eager instantiation
+     */
+    public DefaultServicesBuilder withEagerInstantiation(Executor executor) {
+        this.instantiationExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Create all the singleton services instances at build time, for factories blocking on I/O.<br>
+     * Instances are created on virtual threads when running the multi-release jar on Java 21 or later, on a
+     * shared cached thread pool otherwise.
+     *
+     * @see #withEagerInstantiation(Executor)
+     */
+    public DefaultServicesBuilder withBlockingInstantiation() {
+        return withEagerInstantiation(BlockingExecutors.instantiationExecutor());
+    }
+
+    /**
+     * Close the services on <code>executor</code>, see {@link DefaultServices#shutdown()}
+     *
+     * @param executor the executor used to close independent services concurrently, null to close services
+     *                 sequentially on the closing thread
+     */
+    public DefaultServicesBuilder withCloseExecutor(Executor executor) {
+        this.closeExecutor = executor;
+        return this;
+    }
+
+    /**
+     * With a close executor, a service not closed within <code>closeTimeout</code> is abandoned and its dependencies
+     * are kept open. Without close executor, slower services are only reported once closed, see
+     * {@link DefaultServices#shutdown()}.
+     *
+     * @param closeTimeout maximum close duration of a service, slower services are reported in the
+     *                     {@link ShutdownReport}
+     */
+    public DefaultServicesBuilder withCloseTimeout(Duration closeTimeout) {
+        this.closeTimeout = Objects.requireNonNull(closeTimeout, "closeTimeout is null");
+        return this;
+    }
+
+    /**
+     * @param executor the executor creating the service instances requested with {@link Service#getAsync()},
+     *                 defaults to {@link ForkJoinPool#commonPool()}
+     */
+    public DefaultServicesBuilder withAsyncExecutor(Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "executor is null");
+        return this;
+    }
+
+    /**
+     * Accept new services once built, see {@link DefaultServices#enableDynamicRegistration()}.
+     */
+    public DefaultServicesBuilder withDynamicRegistration() {
+        this.dynamicRegistration = true;
+        return this;
+    }
+
+    /**
+     * Count the lookups, and the access and instances creation of each service, see
+     * {@link DefaultServices#enableMetrics()}.
+     */
+    public DefaultServicesBuilder withMetrics() {
+        return withMetrics(false);
+    }
+
+    /**
+     * @param registerMBean true to also expose the metrics as a JMX MBean named after the services name, see
+     *                      {@link ServicesMetricsMXBean}
+     * @see #withMetrics()
+     */
+    public DefaultServicesBuilder withMetrics(boolean registerMBean) {
+        this.metrics = true;
+        this.metricsMBean = registerMBean;
+        return this;
+    }
+
+    /**
+     * Replay the wiring decisions of a previous build stored in <code>file</code>: the chosen constructors, and the
+     * transformers order.<br>
+     * The plan is only replayed if the declarations did not change since it was recorded, otherwise the plan is
+     * recorded again. A replayed plan is only a hint: a planned constructor is resolved first, skipping the
+     * candidates that can not be better.
+     * The plan is written once the build succeeded, if any decision changed.
+     *
+     * @param file the plan file, null to resolve all the declarations
+     */
+    public DefaultServicesBuilder withWiringPlan(Path file) {
+        this.wiringPlan = file;
+        return this;
+    }
+
+    /**
+     * Register a custom scope, that can then be referenced by name from service declarations.
+     *
+     * @param scope the scope, replacing any scope with the same name
+     */
+    public DefaultServicesBuilder withScope(ServiceScope scope) {
+        Objects.requireNonNull(scope, "scope is null");
+        scopes.put(Objects.requireNonNull(scope.name(), "scope name is null"), scope);
+        return this;
+    }
+
+    public <T> ServiceDeclarationBuilder<T> declare(Class<T> type) {
+        return ServiceDeclarationBuilder.create(this, type);
+    }
+
+    public <T> ServiceDeclarationBuilder<T> declare(Parametric<T> type) {
+        return ServiceDeclarationBuilder.create(this, type);
+    }
+
+    public DefaultServices build() {
+        return new BuilderContext().build();
+    }
+
+    public <T> DefaultServicesBuilder register(ServiceDeclaration<T> declaration) {
+        declarations.add(declaration);
+        return this;
+    }
+
+
+    private class BuilderContext implements ServiceResolver {
+
+        private final DefaultServices services;
+        private final List<Service<ServiceDeclarationTransformer>> declarationTransformers;
+        private final List<Service<ServiceInstanceTransformer>> instanceTransformers;
+        private final List<ServiceDeclaration<?>> resolvingDeclarations;
+        // resolvingDeclarations indexed for circular dependencies checks
+        private final PendingDeclarations resolvingIndex;
+        // services resolved by each resolving declaration
+        private final List<List<Service<?>>> resolvedDependencies;
+        // decisions replayed and recorded, null without wiring plan
+        private WiringPlan plan;
+        private long fingerprint;
+
+        public BuilderContext() {
+            services = new DefaultServices(parent);
+            resolvingDeclarations = new ArrayList<>();
+            resolvingIndex = new PendingDeclarations();
+            resolvedDependencies = new ArrayList<>();
+            services.configureShutdown(closeExecutor, closeTimeout);
+            services.configureAsync(asyncExecutor);
+            declarationTransformers = new ArrayList<>();
+            instanceTransformers = new ArrayList<>();
+        }
+
+        public DefaultServices build() {
+            // register the Services instance as a service itself
+            declare(Services.class)
+                    .withName(name)
+                    .withInstance(new ExposedServices(services))
+                    .register();
+
+            // lookup any service that contains nested annotated methods,
+            try (Tracing.Span ignored = Tracing.get().buildPhase(name, "methodScanning")) {
+                LinkedList<ServiceDeclaration<?>> remainings = new LinkedList<>();
+                declarations.forEach(remainings::add);
+                while (!remainings.isEmpty()) {
+                    final ServiceDeclaration<?> declaration = remainings.poll();
+                    final Collection<ServiceDeclaration<?>> newDeclarations = scanMethods(declaration);
+                    newDeclarations.forEach(newDeclaration -> {
+                        remainings.offer(newDeclaration);
+                        register(newDeclaration);
+                    });
+                }
+            }
+
+            if (wiringPlan != null) {
+                fingerprint = WiringPlan.fingerprint(declarations);
+                plan = WiringPlan.load(wiringPlan, fingerprint);
+                if (plan == null)
+                    plan = WiringPlan.create(fingerprint);
+            }
+
+            try (Tracing.Span ignored = Tracing.get().buildPhase(name, "transformersPreparation")) {
+                // collect transformers from parent
+                services.services(ServiceDeclarationTransformer.class).forEach(declarationTransformers::add);
+                services.services(ServiceInstanceTransformer.class).forEach(instanceTransformers::add);
+
+                // create new declarations transformers services
+                // they will be processed by:
+                // - any existing parent declaration and instance transformers
+                // - newly created transformers
+                // - not the new instance transformer, declaration transformer take precedence over instance transformers
+                prepareTransformers(ServiceDeclarationTransformer.class, declarationTransformers);
+
+                // collect new instance transformers
+                // they will all be processed by all declaration transformers (new and existing)
+                // they also will be processed by any previously created instance transformers
+                prepareTransformers(ServiceInstanceTransformer.class, instanceTransformers);
+
+                if (plan != null) {
+                    final List<Service<?>> transformers = new ArrayList<>(declarationTransformers);
+                    transformers.addAll(instanceTransformers);
+                    if (!plan.transformers(transformers)) {
+                        LOGGER.debug("Transformers changed, recording a new wiring plan");
+                        plan = WiringPlan.create(fingerprint);
+                        plan.transformers(transformers);
+                    }
+                }
+            }
+
+            // poll remaining configurations
+            try (Tracing.Span ignored = Tracing.get().buildPhase(name, "declarationsProcessing")) {
+                while (!declarations.isEmpty()) {
+                    final ServiceDeclaration<?> declaration = declarations.peek();
+                    transformAndCreateService(declaration);
+                }
+            }
+
+            services.freeze();
+            if (dynamicRegistration)
+                services.enableDynamicRegistration();
+            if (metrics) {
+                final ServicesMetrics servicesMetrics = services.enableMetrics();
+                if (metricsMBean)
+                    servicesMetrics.registerMBean(name != null ? name :
+                            "services@" + Integer.toHexString(System.identityHashCode(services)));
+            }
+
+            if (instantiationExecutor != null) {
+                try (Tracing.Span ignored = Tracing.get().buildPhase(name, "eagerInstantiation")) {
+                    new ParallelInstantiation(services.dependencyGraph(), instantiationExecutor).run();
+                } catch (RuntimeException | Error e) {
+                    services.close();
+                    throw e;
+                }
+            }
+
+            if (plan != null && plan.isChanged()) {
+                try {
+                    plan.write(wiringPlan);
+                } catch (IOException e) {
+                    LOGGER.warn("Error writing wiring plan {}", wiringPlan, e);
+                }
+            }
+            return services;
+        }
+
+        @Override
+        public Service<?> service(String name, Type type) throws ServiceResolutionException {
+            final ServiceResolution resolution = tryService(name, type);
+            if (!resolution.isResolved())
+                Tracing.get().resolutionFailed(resolution);
+            return resolution.get();
+        }
+
+        @Override
+        public ServiceResolution tryService(String name, Type type) {
+            final ServiceResolution resolution = resolveService(name, type);
+            if (resolution.isResolved() && !resolvedDependencies.isEmpty())
+                resolvedDependencies.get(resolvedDependencies.size() - 1).add(resolution.get());
+            return resolution;
+        }
+
+        private ServiceResolution resolveService(String name, Type type) {
+            final ServiceResolution resolution = services.tryService(name, type);
+            if (resolution.isResolved())
+                return resolution;
+            final ServiceDeclaration<?> declaration = declaration(name, type);
+            if (declaration != null) {
+                final Service<?> service = transformAndCreateService(declaration);
+                return service != null ? ServiceResolution.resolved(service) : ServiceResolution.notFound(name, type);
+            }
+            if (isResolving(name, type))
+                throw new CircularDependencyException(resolvingDeclarations);
+            return resolution;
+        }
+
+        private <T> void prepareTransformers(Class<T> type, List<Service<T>> target) {
+            final List<ServiceDeclaration<?>> transformerDeclarations = declarations.stream()
+                    .filter(d -> AssignabilityCache.isAssignableTo(d, type))
+                    .collect(Collectors.toList());
+
+            //noinspection unchecked
+            transformerDeclarations.stream()
+                    .map(this::transformAndCreateService)
+                    // since service creation can change service type, we need to check again
+                    .filter(s -> s != null && AssignabilityCache.isAssignableTo(s, type))
+                    .forEach(s -> target.add((Service<T>) s));
+            Collections.sort(target);
+        }
+
+        private Collection<ServiceDeclaration<?>> scanMethods(ServiceDeclaration<?> serviceDeclaration) {
+            // walk up class hierarchy to collect any annotated methods
+            Class<?> current = getRawType(serviceDeclaration.type(), null);
+            final List<ServiceDeclaration<?>> methodDeclarations = new ArrayList<>();
+            while (current != null) {
+                ServiceWirings.methods(current).stream()
+                        .map(AnnotatedMethod::new)
+                        .map(method -> MethodServiceDeclaration.create(serviceDeclaration, method))
+                        .forEach(methodDeclarations::add);
+                current = current.getSuperclass();
+            }
+            return methodDeclarations;
+        }
+
+        private ServiceDeclaration<?> declaration(String name, Type type) {
+            return declarations.find(name, type);
+        }
+
+        private Service<?> transformAndCreateService(ServiceDeclaration<?> declaration) {
+            resolvingDeclarations.add(declaration);
+            resolvingIndex.add(declaration);
+            resolvedDependencies.add(new ArrayList<>());
+            final SelfTime resolutionTime = SelfTime.start();
+            try {
+                if (!declarations.remove(declaration))
+                    throw new IllegalArgumentException("declaration " + declaration + " not found in declarations");
+                declaration = transformDeclaration(declaration);
+                final Service<?> service = createService(declaration);
+                final long resolutionNanos = resolutionTime.stop();
+                if (service != null)
+                    services.dependencyGraph().add(service, resolvedDependencies.get(resolvedDependencies.size() - 1),
+                            resolutionNanos);
+                return service;
+            } catch (RuntimeException | Error e) {
+                resolutionTime.stop();
+                throw e;
+            } finally {
+                resolvingIndex.remove(resolvingDeclarations.remove(resolvingDeclarations.size() - 1));
+                resolvedDependencies.remove(resolvedDependencies.size() - 1);
+            }
+        }
+
+        private <T> Service<T> createService(ServiceDeclaration<T> declaration) {
+            final ServiceResolver resolver = plan == null ? this :
+                    new PlannedResolver(this, plan.decisions(declaration));
+            final InstanceSupplier<? extends T> instanceSupplier = declaration
+                    .createInstanceSupplier(resolver)
+                    .orElse(null);
+            if (instanceSupplier == null)
+                return null;
+            final InstanceSupplier<? extends T> supplier = transformedSupplier(declaration, instanceSupplier);
+            final ServiceScope scope = scopes.get(declaration.scope());
+            if (scope == null)
+                throw new IllegalArgumentException("unknown scope '" + declaration.scope() + "' of "
+                        + ServiceDefinition.toString(declaration));
+            return this.services.add(declaration, supplier, scope);
+        }
+
+        private ServiceDeclaration<?> transformDeclaration(ServiceDeclaration<?> declaration) {
+            ServiceDeclaration<?> current = declaration;
+            // transform declaration
+            for (Service<ServiceDeclarationTransformer> transformerService : declarationTransformers) {
+                final ServiceDeclarationTransformer transformer = transformerService.get();
+                try (Tracing.Span ignored = Tracing.get().transformation(current, transformer, "declaration")) {
+                    current = transformer.transform(current);
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Fuse the current instance transformers targeting the declared type in a single chain.<br>
+         * Transformer services are not got here: a transformer already created is filtered now, the others are
+         * filtered on their first transformation, see {@link ChainedTransformer}.
+         *
+         * @return the supplier of transformed instances, <code>instanceSupplier</code> itself if no transformer
+         * targets the declared type
+         */
+        private <T> InstanceSupplier<? extends T> transformedSupplier(ServiceDeclaration<T> declaration,
+                                                                      InstanceSupplier<? extends T> instanceSupplier) {
+            final List<ChainedTransformer> transformers = new ArrayList<>(instanceTransformers.size());
+            for (Service<ServiceInstanceTransformer> transformerService : instanceTransformers) {
+                final ChainedTransformer transformer = ChainedTransformer.create(transformerService, declaration);
+                if (transformer != null)
+                    transformers.add(transformer);
+            }
+            if (transformers.isEmpty())
+                return instanceSupplier;
+            if (transformers.size() == 1) {
+                final ChainedTransformer transformer = transformers.get(0);
+                return () -> transformer.transform(declaration, instanceSupplier.get());
+            }
+            final ChainedTransformer[] chain = transformers.toArray(new ChainedTransformer[0]);
+            return () -> {
+                T current = instanceSupplier.get();
+                for (ChainedTransformer transformer : chain) {
+                    current = transformer.transform(declaration, current);
+                }
+                return current;
+            };
+        }
+
+        private boolean isResolving(String name, Type type) {
+            return resolvingIndex.find(name, type) != null;
+        }
+    }
+
+
+    /**
+     * An instance transformer service of a declaration transformer chain.<br>
+     * A singleton transformer is got once, on the first transformation, and skipped afterward if it does not
+     * target the declared type. Transformers of other scopes are got for each transformation, like any
+     * dependency.
+     */
+    private static final class ChainedTransformer {
+
+        /**
+         * @return the chained transformer, null if the transformer is already created and does not target the
+         * declared type
+         */
+        static ChainedTransformer create(Service<ServiceInstanceTransformer> service,
+                                         ServiceDeclaration<?> declaration) {
+            final ChainedTransformer transformer = new ChainedTransformer(service);
+            if (transformer.singleton) {
+                final ServiceInstanceTransformer created = service.peek().orElse(null);
+                if (created != null) {
+                    if (!AssignabilityCache.isAssignableTo(declaration, created.targetType()))
+                        return null;
+                    transformer.instance = created;
+                    transformer.resolved = true;
+                }
+            }
+            return transformer;
+        }
+
+        private final Service<ServiceInstanceTransformer> service;
+        private final boolean singleton;
+        // singleton instance, null if not targeting the declared type. Written before resolved.
+        private volatile ServiceInstanceTransformer instance;
+        private volatile boolean resolved;
+
+        private ChainedTransformer(Service<ServiceInstanceTransformer> service) {
+            this.service = service;
+            this.singleton = DefaultService.isSingleton(service);
+        }
+
+        <T> T transform(ServiceDeclaration<T> declaration, T current) {
+            ServiceInstanceTransformer transformer;
+            if (resolved) {
+                transformer = instance;
+            } else {
+                transformer = service.get();
+                if (!AssignabilityCache.isAssignableTo(declaration, transformer.targetType()))
+                    transformer = null;
+                if (singleton) {
+                    instance = transformer;
+                    resolved = true;
+                }
+            }
+            if (transformer == null)
+                return current;
+            try (Tracing.Span ignored = Tracing.get().transformation(declaration, transformer, "instance")) {
+                return transformer.transform(declaration, current);
+            }
+        }
+    }
+
+    private static class ExposedServices implements Services {
+        private final Services delegate;
+
+        public ExposedServices(Services delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <V> TypedServices<V> services(Class<? super V> type) {
+            return delegate.services(type);
+        }
+
+        @Override
+        public <V> TypedServices<V> services(Parametric<? super V> parametric) {
+            return delegate.services(parametric);
+        }
+
+        @Override
+        public void close() {
+            // prevent close
+        }
+
+        @Override
+        @Nonnull
+        public Iterator<Service<?>> iterator() {
+            return delegate.iterator();
+        }
+
+        @Override
+        public Service<?> service(String name, Type type) throws ServiceResolutionException {
+            return delegate.service(name, type);
+        }
+
+        @Override
+        public ServiceResolution tryService(String name, Type type) {
+            return delegate.tryService(name, type);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+
+        @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o == delegate;
+        }
+    }
+}
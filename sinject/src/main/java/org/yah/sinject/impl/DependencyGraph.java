@@ -0,0 +1,47 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+
+import java.util.*;
+
+/**
+ * Dependencies between the services created by a {@link DefaultServicesBuilder}.<br>
+ * Services are kept in creation order, so any service comes after all of its dependencies.
+ */
+final class DependencyGraph {
+
+    private final Map<Service<?>, List<Service<?>>> dependencies = new LinkedHashMap<>();
+    private final Map<Service<?>, Long> resolutionNanos = new HashMap<>();
+
+    void add(Service<?> service, Collection<? extends Service<?>> serviceDependencies) {
+        add(service, serviceDependencies, 0);
+    }
+
+    /**
+     * @param resolutionNanos the time spent resolving the service declaration, excluding its dependencies
+     *                        resolution
+     */
+    void add(Service<?> service, Collection<? extends Service<?>> serviceDependencies, long resolutionNanos) {
+        dependencies.put(service, List.copyOf(new LinkedHashSet<>(serviceDependencies)));
+        this.resolutionNanos.put(service, resolutionNanos);
+    }
+
+    /**
+     * @return the services, ordered after their dependencies
+     */
+    Set<Service<?>> services() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * @return the services directly used to create <code>service</code>
+     */
+    List<Service<?>> dependencies(Service<?> service) {
+        return dependencies.getOrDefault(service, Collections.emptyList());
+    }
+
+    long resolutionNanos(Service<?> service) {
+        return resolutionNanos.getOrDefault(service, 0L);
+    }
+
+}
@@ -1,6 +1,5 @@
 package org.yah.sinject.impl;
 
-import org.apache.commons.lang3.reflect.TypeUtils;
 import org.yah.sinject.Service;
 import org.yah.sinject.TypedServices;
 import org.yah.sinject.Parametric;
@@ -65,7 +64,7 @@ class FilteredServices<T> implements TypedServices<T> {
             if (next == null) {
                 while (delegate.hasNext()) {
                     Service<?> current = delegate.next();
-                    if (TypeUtils.isAssignable(current.type(), type)) {
+                    if (AssignabilityCache.isAssignable(current.type(), type)) {
                         //noinspection unchecked
                         next = (Service<T>) current;
                         break;
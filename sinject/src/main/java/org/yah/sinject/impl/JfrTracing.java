@@ -0,0 +1,182 @@
+package org.yah.sinject.impl;
+
+import jdk.jfr.*;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceResolution;
+
+/**
+ * Flight Recorder events of the services, in the "Sinject" category. Only loaded by {@link Tracing} when the
+ * <code>jdk.jfr</code> module is available.<br>
+ * Events are enabled by default in recordings, and are their own {@link Tracing.Span}: an operation allocates its
+ * event only, which is committed on close if the recording accepts it. Nothing is allocated while no recording
+ * runs, so that the service instantiations stay allocation free.
+ */
+final class JfrTracing implements Tracing {
+
+    static Tracing create() {
+        final JfrTracing tracing = new JfrTracing();
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                tracing.update(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                tracing.update(FlightRecorder.getFlightRecorder());
+            }
+        });
+        return tracing;
+    }
+
+    /**
+     * true while a recording runs
+     */
+    private volatile boolean recording;
+
+    private JfrTracing() {
+    }
+
+    private void update(FlightRecorder recorder) {
+        recording = recorder.getRecordings().stream().anyMatch(r -> r.getState() == RecordingState.RUNNING);
+    }
+
+    @Override
+    public Span buildPhase(String services, String phase) {
+        if (!recording)
+            return NoTracing.INSTANCE;
+        final BuildPhaseEvent event = new BuildPhaseEvent();
+        event.services = services;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Span instantiation(ServiceDefinition service, String scope) {
+        if (!recording)
+            return NoTracing.INSTANCE;
+        final InstantiationEvent event = new InstantiationEvent();
+        if (event.isEnabled()) {
+            event.serviceName = service.name();
+            event.serviceType = service.type().getTypeName();
+            event.priority = service.priority();
+            event.scope = scope;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Span transformation(ServiceDefinition service, Object transformer, String kind) {
+        if (!recording)
+            return NoTracing.INSTANCE;
+        final TransformationEvent event = new TransformationEvent();
+        if (event.isEnabled()) {
+            event.serviceName = service.name();
+            event.serviceType = service.type().getTypeName();
+            event.priority = service.priority();
+            event.transformer = transformer.getClass().getName();
+            event.kind = kind;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void resolutionFailed(ServiceResolution resolution) {
+        if (!recording)
+            return;
+        final ResolutionFailureEvent event = new ResolutionFailureEvent();
+        if (!event.shouldCommit())
+            return;
+        event.serviceName = resolution.name();
+        event.serviceType = resolution.type().getTypeName();
+        event.candidates = resolution.candidates().size();
+        if (!resolution.candidates().isEmpty()) {
+            final Service<?> candidate = resolution.candidates().get(0);
+            event.priority = candidate.priority();
+        }
+        event.commit();
+    }
+
+    private abstract static class SpanEvent extends Event implements Span {
+        @Override
+        public void close() {
+            end();
+            if (shouldCommit())
+                commit();
+        }
+    }
+
+    @Name("org.yah.sinject.BuildPhase")
+    @Label("Services Build Phase")
+    @Category("Sinject")
+    @Description("A phase of DefaultServicesBuilder.build()")
+    private static final class BuildPhaseEvent extends SpanEvent {
+        @Label("Services")
+        String services;
+
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("org.yah.sinject.Instantiation")
+    @Label("Service Instantiation")
+    @Category("Sinject")
+    @Description("Creation of a service instance, including the dependencies created meanwhile")
+    private static final class InstantiationEvent extends SpanEvent {
+        @Label("Service Name")
+        String serviceName;
+
+        @Label("Service Type")
+        String serviceType;
+
+        @Label("Priority")
+        int priority;
+
+        @Label("Scope")
+        String scope;
+    }
+
+    @Name("org.yah.sinject.Transformation")
+    @Label("Service Transformation")
+    @Category("Sinject")
+    @Description("Execution of a declaration or instance transformer")
+    private static final class TransformationEvent extends SpanEvent {
+        @Label("Service Name")
+        String serviceName;
+
+        @Label("Service Type")
+        String serviceType;
+
+        @Label("Priority")
+        int priority;
+
+        @Label("Transformer")
+        String transformer;
+
+        @Label("Kind")
+        String kind;
+    }
+
+    @Name("org.yah.sinject.ResolutionFailure")
+    @Label("Service Resolution Failure")
+    @Category("Sinject")
+    @Description("A service lookup resolving no service, or conflicting services")
+    private static final class ResolutionFailureEvent extends Event {
+        @Label("Service Name")
+        String serviceName;
+
+        @Label("Service Type")
+        String serviceType;
+
+        @Label("Priority")
+        @Description("Priority of the conflicting candidates")
+        int priority;
+
+        @Label("Candidates")
+        int candidates;
+    }
+}
@@ -0,0 +1,109 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Parametric;
+import org.yah.sinject.Service;
+import org.yah.sinject.TypedServices;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable {@link TypedServices} of frozen services, backed by an array of the matching services.<br>
+ * Nested views are computed once, and memoized by requested type.
+ */
+final class MaterializedServices<T> implements TypedServices<T> {
+
+    private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED | Spliterator.NONNULL;
+
+    static MaterializedServices<Object> create(List<Service<?>> services) {
+        //noinspection unchecked
+        return new MaterializedServices<>(services.toArray(Service[]::new));
+    }
+
+    /**
+     * Merge sorted services, parent services first on equal priority.
+     */
+    static <T> MaterializedServices<T> merge(MaterializedServices<?> parent, MaterializedServices<?> child) {
+        return merge(Arrays.asList(parent.services), Arrays.asList(child.services));
+    }
+
+    static <T> MaterializedServices<T> merge(Iterable<? extends Service<?>> parent,
+                                             Iterable<? extends Service<?>> child) {
+        final List<Service<?>> merged = new ArrayList<>();
+        final Iterator<? extends Service<?>> parentIterator = parent.iterator();
+        final Iterator<? extends Service<?>> childIterator = child.iterator();
+        Service<?> p = parentIterator.hasNext() ? parentIterator.next() : null;
+        Service<?> c = childIterator.hasNext() ? childIterator.next() : null;
+        while (p != null || c != null) {
+            if (p == null || (c != null && c.priority() < p.priority())) {
+                merged.add(c);
+                c = childIterator.hasNext() ? childIterator.next() : null;
+            } else {
+                merged.add(p);
+                p = parentIterator.hasNext() ? parentIterator.next() : null;
+            }
+        }
+        //noinspection unchecked
+        return new MaterializedServices<>(merged.toArray(Service[]::new));
+    }
+
+    private final Service<T>[] services;
+
+    private final ConcurrentMap<Type, MaterializedServices<?>> views = new ConcurrentHashMap<>();
+
+    private MaterializedServices(Service<T>[] services) {
+        this.services = services;
+    }
+
+    @Override
+    public <V> TypedServices<V> services(Class<? super V> type) {
+        return view(type);
+    }
+
+    @Override
+    public <V> TypedServices<V> services(Parametric<? super V> parametric) {
+        return view(parametric.getType());
+    }
+
+    <V> MaterializedServices<V> view(Type type) {
+        Objects.requireNonNull(type, "type is null");
+        MaterializedServices<?> view = views.get(type);
+        if (view == null)
+            view = views.computeIfAbsent(type, this::filter);
+        //noinspection unchecked
+        return (MaterializedServices<V>) view;
+    }
+
+    private <V> MaterializedServices<V> filter(Type type) {
+        final List<Service<?>> matching = new ArrayList<>();
+        for (Service<T> service : services) {
+            if (AssignabilityCache.isAssignable(service.type(), type))
+                matching.add(service);
+        }
+        //noinspection unchecked
+        return new MaterializedServices<>(matching.toArray(Service[]::new));
+    }
+
+    public int size() {
+        return services.length;
+    }
+
+    @Override
+    @Nonnull
+    public Iterator<Service<T>> iterator() {
+        return Arrays.asList(services).iterator();
+    }
+
+    @Override
+    public Spliterator<Service<T>> spliterator() {
+        return Spliterators.spliterator(services, CHARACTERISTICS);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(services);
+    }
+}
@@ -0,0 +1,153 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.ServiceDefinition;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counters of a {@link DefaultServices} read at a point in time, see {@link ServicesMetrics#snapshot()}.<br>
+ * Counters are read one by one while they are updated, so a snapshot is not atomic: the hits, misses and conflicts
+ * can differ from the lookups by the lookups running concurrently.
+ */
+public final class MetricsSnapshot {
+
+    private final long lookups;
+    private final long hits;
+    private final long misses;
+    private final long conflicts;
+    private final List<ServiceSnapshot> services;
+
+    MetricsSnapshot(long lookups, long hits, long misses, long conflicts, List<ServiceSnapshot> services) {
+        this.lookups = lookups;
+        this.hits = hits;
+        this.misses = misses;
+        this.conflicts = conflicts;
+        this.services = List.copyOf(services);
+    }
+
+    /**
+     * @return the service lookups by name and type
+     */
+    public long lookups() {
+        return lookups;
+    }
+
+    /**
+     * @return the lookups resolving a single service
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the lookups resolving no service
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the lookups resolving more than one service with the same priority
+     */
+    public long conflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return the snapshot of each service, sorted by priority
+     */
+    public List<ServiceSnapshot> services() {
+        return services;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "lookups=" + lookups +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", conflicts=" + conflicts +
+                ", services=" + services +
+                '}';
+    }
+
+    public static final class ServiceSnapshot {
+        private final ServiceDefinition service;
+        private final long accesses;
+        private final long creationNanos;
+        private final long[] histogram;
+        private final long creations;
+
+        ServiceSnapshot(ServiceDefinition service, long accesses, long creationNanos, long[] histogram) {
+            this.service = service;
+            this.accesses = accesses;
+            this.creationNanos = creationNanos;
+            this.histogram = histogram;
+            this.creations = Arrays.stream(histogram).sum();
+        }
+
+        public ServiceDefinition service() {
+            return service;
+        }
+
+        /**
+         * @return the instance requests, using {@link org.yah.sinject.Service#get()}
+         */
+        public long accesses() {
+            return accesses;
+        }
+
+        /**
+         * @return the created instances
+         */
+        public long creations() {
+            return creations;
+        }
+
+        /**
+         * @return the cumulated instances creation duration, including the dependencies created meanwhile
+         */
+        public Duration creationTime() {
+            return Duration.ofNanos(creationNanos);
+        }
+
+        /**
+         * @return the creations count of each power of two latency bucket: bucket <code>i</code> counts the
+         * creations lasting less than <code>2^i</code> nanoseconds
+         */
+        public long[] histogram() {
+            return histogram.clone();
+        }
+
+        /**
+         * @param quantile the quantile, between 0 and 1
+         * @return the upper bound of the latency bucket containing the quantile, zero if no instance was created
+         */
+        public Duration creationLatency(double quantile) {
+            if (quantile < 0 || quantile > 1)
+                throw new IllegalArgumentException("invalid quantile " + quantile);
+            if (creations == 0)
+                return Duration.ZERO;
+            final long rank = Math.max(1, (long) Math.ceil(quantile * creations));
+            long count = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                count += histogram[i];
+                if (count >= rank)
+                    return Duration.ofNanos(i == histogram.length - 1 ? Long.MAX_VALUE : 1L << i);
+            }
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "service=" + service +
+                    ", accesses=" + accesses +
+                    ", creations=" + creations +
+                    ", creationTime=" + creationTime() +
+                    '}';
+        }
+    }
+}
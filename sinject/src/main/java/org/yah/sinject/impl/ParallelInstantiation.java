@@ -0,0 +1,64 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Create all the singleton services of a {@link DependencyGraph} on an {@link Executor}.<br>
+ * Each service is created as soon as all its dependencies are created, so independent services are created
+ * concurrently.
+ */
+final class ParallelInstantiation {
+
+    private final DependencyGraph graph;
+    private final Executor executor;
+
+    ParallelInstantiation(DependencyGraph graph, Executor executor) {
+        this.graph = Objects.requireNonNull(graph, "graph is null");
+        this.executor = Objects.requireNonNull(executor, "executor is null");
+    }
+
+    /**
+     * Create all services and wait for completion.
+     *
+     * @throws org.yah.sinject.exceptions.ServiceCreationException the first creation error, in creation order
+     */
+    void run() {
+        final Map<Service<?>, CompletableFuture<?>> futures = new LinkedHashMap<>();
+        for (Service<?> service : graph.services()) {
+            // dependencies always come first, dependencies from parent are not created here
+            final CompletableFuture<?>[] dependencies = graph.dependencies(service).stream()
+                    .map(futures::get)
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture[]::new);
+            final CompletableFuture<Void> created = CompletableFuture.allOf(dependencies);
+            futures.put(service, DefaultService.isSingleton(service) ? created.thenRunAsync(service::get, executor) : created);
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw firstError(futures.values());
+        }
+    }
+
+    private static RuntimeException firstError(Collection<CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    return (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                return e;
+            }
+        }
+        throw new IllegalStateException("no service creation error found");
+    }
+}
@@ -0,0 +1,167 @@
+package org.yah.sinject.impl;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.yah.sinject.builder.ServiceDeclaration;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.apache.commons.lang3.reflect.TypeUtils.getRawType;
+
+/**
+ * Declarations of a {@link DefaultServicesBuilder} not yet created, in registration order.<br>
+ * Declarations are indexed by name, and by each class and interface of their raw type hierarchy, so that a lookup
+ * only matches the declarations that can be assignable to the requested type. Declarations and requested types
+ * without indexable raw type (type variables, arrays) fall back to a scan.
+ */
+final class PendingDeclarations implements Iterable<ServiceDeclaration<?>> {
+
+    private final Set<Entry> entries = new LinkedHashSet<>();
+
+    /**
+     * a declaration can be registered more than once
+     */
+    private final Map<ServiceDeclaration<?>, Deque<Entry>> entriesByDeclaration = new IdentityHashMap<>();
+
+    private final Map<String, Set<Entry>> byName = new HashMap<>();
+
+    private final Map<Class<?>, Set<Entry>> byRawType = new HashMap<>();
+
+    private final Set<Entry> unindexed = new LinkedHashSet<>();
+
+    private final Map<Class<?>, List<Class<?>>> hierarchies = new HashMap<>();
+
+    private long sequence;
+
+    void add(ServiceDeclaration<?> declaration) {
+        final Entry entry = new Entry(declaration, sequence++);
+        entries.add(entry);
+        entriesByDeclaration.computeIfAbsent(declaration, d -> new ArrayDeque<>(1)).add(entry);
+        entry.buckets.add(byName.computeIfAbsent(declaration.name(), n -> new LinkedHashSet<>()));
+        final Class<?> rawType = indexableRawType(declaration.type());
+        if (rawType == null) {
+            entry.buckets.add(unindexed);
+        } else {
+            for (Class<?> type : hierarchy(rawType))
+                entry.buckets.add(byRawType.computeIfAbsent(type, t -> new LinkedHashSet<>()));
+        }
+        entry.buckets.forEach(bucket -> bucket.add(entry));
+    }
+
+    /**
+     * Remove the first registration of a declaration.
+     *
+     * @return false if the declaration is not pending
+     */
+    boolean remove(ServiceDeclaration<?> declaration) {
+        final Deque<Entry> declarationEntries = entriesByDeclaration.get(declaration);
+        if (declarationEntries == null)
+            return false;
+        final Entry entry = declarationEntries.poll();
+        if (declarationEntries.isEmpty())
+            entriesByDeclaration.remove(declaration);
+        entries.remove(entry);
+        entry.buckets.forEach(bucket -> bucket.remove(entry));
+        return true;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * @return the first pending declaration, null if none
+     */
+    ServiceDeclaration<?> peek() {
+        return entries.isEmpty() ? null : entries.iterator().next().declaration;
+    }
+
+    /**
+     * @return the first registered declaration matching the name and type, null if none
+     */
+    ServiceDeclaration<?> find(String name, Type type) {
+        if (name != null)
+            return first(byName.getOrDefault(name, Collections.emptySet()), name, type);
+        final Class<?> rawType = indexableRawType(type);
+        if (rawType == null)
+            return first(entries, null, type);
+        final Entry indexed = firstEntry(byRawType.getOrDefault(rawType, Collections.emptySet()), null, type);
+        final Entry other = firstEntry(unindexed, null, type);
+        if (indexed == null)
+            return other == null ? null : other.declaration;
+        return other == null || indexed.sequence < other.sequence ? indexed.declaration : other.declaration;
+    }
+
+    Stream<ServiceDeclaration<?>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    @Nonnull
+    public Iterator<ServiceDeclaration<?>> iterator() {
+        final Iterator<Entry> iterator = entries.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public ServiceDeclaration<?> next() {
+                return iterator.next().declaration;
+            }
+        };
+    }
+
+    private static ServiceDeclaration<?> first(Set<Entry> candidates, String name, Type type) {
+        final Entry entry = firstEntry(candidates, name, type);
+        return entry == null ? null : entry.declaration;
+    }
+
+    private static Entry firstEntry(Set<Entry> candidates, String name, Type type) {
+        for (Entry candidate : candidates) {
+            if (AssignabilityCache.match(candidate.declaration, name, type))
+                return candidate;
+        }
+        return null;
+    }
+
+    private List<Class<?>> hierarchy(Class<?> type) {
+        List<Class<?>> hierarchy = hierarchies.get(type);
+        if (hierarchy == null) {
+            hierarchy = new ArrayList<>();
+            hierarchy.add(type);
+            hierarchy.addAll(ClassUtils.getAllSuperclasses(type));
+            hierarchy.addAll(ClassUtils.getAllInterfaces(type));
+            if (type.isInterface())
+                hierarchy.add(Object.class);
+            hierarchies.put(type, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * @return the raw class of a type, null for types matched by scanning: type variables, wildcards and arrays
+     * (array assignability is covariant), and primitives
+     */
+    private static Class<?> indexableRawType(Type type) {
+        final Class<?> rawType = getRawType(type, null);
+        if (rawType == null || rawType.isArray() || rawType.isPrimitive())
+            return null;
+        return rawType;
+    }
+
+    private static final class Entry {
+        private final ServiceDeclaration<?> declaration;
+        private final long sequence;
+        private final List<Set<Entry>> buckets = new ArrayList<>(4);
+
+        private Entry(ServiceDeclaration<?> declaration, long sequence) {
+            this.declaration = declaration;
+            this.sequence = sequence;
+        }
+    }
+}
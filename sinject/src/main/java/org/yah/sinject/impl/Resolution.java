@@ -0,0 +1,56 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolve the top most priority candidates matching a name and a type.
+ * Exceptions are only created when the {@link ServiceResolution} is read, so a resolution can be memoized.
+ */
+final class Resolution {
+
+    private Resolution() {
+    }
+
+    /**
+     * @param services the candidates sorted by priority
+     */
+    static ServiceResolution resolve(Iterable<? extends Service<?>> services, String name, Type type) {
+        List<Service<?>> candidates = null;
+        for (Service<?> service : services) {
+            if (candidates != null && service.priority() != candidates.get(0).priority())
+                break;
+            if (AssignabilityCache.match(service, name, type)) {
+                if (candidates == null)
+                    candidates = new ArrayList<>(1);
+                candidates.add(service);
+            }
+        }
+        if (candidates == null)
+            return ServiceResolution.notFound(name, type);
+        return ServiceResolution.of(name, type, candidates);
+    }
+
+    /**
+     * Merge the resolutions of a parent and a child services, as if resolved on their merged services: the top most
+     * priority candidates win, parent candidates come first on equal priority.
+     */
+    static ServiceResolution merge(ServiceResolution parent, ServiceResolution child) {
+        if (child.candidates().isEmpty())
+            return parent;
+        if (parent.candidates().isEmpty())
+            return child;
+        final int parentPriority = parent.candidates().get(0).priority();
+        final int childPriority = child.candidates().get(0).priority();
+        if (parentPriority != childPriority)
+            return parentPriority < childPriority ? parent : child;
+        final List<Service<?>> candidates = new ArrayList<>(parent.candidates());
+        candidates.addAll(child.candidates());
+        return ServiceResolution.of(child.name(), child.type(), candidates);
+    }
+
+}
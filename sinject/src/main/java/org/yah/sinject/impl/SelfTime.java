@@ -0,0 +1,39 @@
+package org.yah.sinject.impl;
+
+/**
+ * Measure the duration of an operation, excluding the duration of the measured operations nested in it on the
+ * same thread, such as the creation of a dependency during the creation of a service.
+ */
+final class SelfTime {
+
+    private static final ThreadLocal<SelfTime> CURRENT = new ThreadLocal<>();
+
+    static SelfTime start() {
+        final SelfTime selfTime = new SelfTime(CURRENT.get());
+        CURRENT.set(selfTime);
+        return selfTime;
+    }
+
+    private final SelfTime outer;
+    private final long start;
+    private long nested;
+
+    private SelfTime(SelfTime outer) {
+        this.outer = outer;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * @return the nanoseconds elapsed since {@link #start()}, minus the nested operations duration
+     */
+    long stop() {
+        final long elapsed = System.nanoTime() - start;
+        if (outer != null) {
+            outer.nested += elapsed;
+            CURRENT.set(outer);
+        } else {
+            CURRENT.remove();
+        }
+        return elapsed - nested;
+    }
+}
@@ -0,0 +1,140 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.TypedServices;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable lookup table of frozen services.<br>
+ * Services are grouped by name, and each (name, type) resolution is memoized, so that repeated lookups are a
+ * single hash probe.<br>
+ * Typed views are materialized on first request, see {@link MaterializedServices}.
+ */
+final class ServiceIndex {
+
+    private final List<Service<?>> services;
+
+    private final Map<String, List<Service<?>>> servicesByName;
+
+    private final ConcurrentMap<Key, ServiceResolution> resolutions = new ConcurrentHashMap<>();
+
+    private final MaterializedServices<Object> materialized;
+
+    /**
+     * index of the parent services, merged with this index services
+     */
+    private final ServiceIndex parent;
+
+    private final ConcurrentMap<Type, MaterializedServices<?>> mergedViews;
+
+    ServiceIndex(List<Service<?>> services) {
+        this(services, null);
+    }
+
+    /**
+     * @param services the services sorted by priority
+     * @param parent   index of the parent services, null if none
+     */
+    ServiceIndex(List<Service<?>> services, ServiceIndex parent) {
+        this.parent = parent;
+        this.mergedViews = parent == null ? null : new ConcurrentHashMap<>();
+        this.services = List.copyOf(services);
+        final Map<String, List<Service<?>>> byName = new HashMap<>();
+        // keep priority order in each group
+        this.services.forEach(s -> byName.computeIfAbsent(s.name(), n -> new ArrayList<>()).add(s));
+        byName.replaceAll((n, l) -> List.copyOf(l));
+        servicesByName = Map.copyOf(byName);
+        materialized = MaterializedServices.create(this.services);
+    }
+
+    /**
+     * @return the services of this index, without the parent services
+     */
+    List<Service<?>> services() {
+        return services;
+    }
+
+    /**
+     * @return the services of this index and its parents, sorted by priority
+     */
+    Iterable<Service<?>> allServices() {
+        if (parent == null)
+            return services;
+        return untyped(view(Object.class));
+    }
+
+    /**
+     * @return the services of this index parents, merged with not yet indexed services sorted by priority
+     */
+    Iterable<Service<?>> merge(List<Service<?>> services) {
+        return untyped(MaterializedServices.merge(allServices(), services));
+    }
+
+    private static Iterable<Service<?>> untyped(MaterializedServices<?> services) {
+        //noinspection unchecked
+        return (Iterable<Service<?>>) (Iterable<?>) services;
+    }
+
+    <V> MaterializedServices<V> view(Type type) {
+        if (parent == null)
+            return materialized.view(type);
+        MaterializedServices<?> view = mergedViews.get(type);
+        if (view == null)
+            view = mergedViews.computeIfAbsent(type, t -> MaterializedServices.merge(parent.view(t),
+                    materialized.view(t)));
+        //noinspection unchecked
+        return (MaterializedServices<V>) view;
+    }
+
+    ServiceResolution resolve(String name, Type type) {
+        final Key key = new Key(name, type);
+        ServiceResolution resolution = resolutions.get(key);
+        if (resolution == null)
+            resolution = resolutions.computeIfAbsent(key, k -> resolveMerged(name, type));
+        return resolution;
+    }
+
+    private ServiceResolution resolveMerged(String name, Type type) {
+        final ServiceResolution resolution = Resolution.resolve(candidates(name), name, type);
+        return parent == null ? resolution : Resolution.merge(parent.resolve(name, type), resolution);
+    }
+
+    /**
+     * @return the services of this index with the given name, sorted by priority
+     */
+    List<Service<?>> candidates(String name) {
+        if (name == null)
+            return services;
+        return servicesByName.getOrDefault(name, Collections.emptyList());
+    }
+
+    private static final class Key {
+        private final String name;
+        private final Type type;
+        private final int hash;
+
+        private Key(String name, Type type) {
+            this.name = name;
+            this.type = Objects.requireNonNull(type, "type is null");
+            this.hash = 31 * Objects.hashCode(name) + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hash == key.hash && Objects.equals(name, key.name) && type.equals(key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
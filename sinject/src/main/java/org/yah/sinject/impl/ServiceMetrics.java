@@ -0,0 +1,46 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access count and creation latency histogram of a service, see {@link ServicesMetrics}.<br>
+ * Latencies are counted in power of two buckets: bucket <code>i</code> counts the creations lasting less than
+ * <code>2^i</code> nanoseconds, and at least <code>2^(i-1)</code>.
+ */
+final class ServiceMetrics {
+
+    static final int BUCKETS = 64;
+
+    static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private final Service<?> service;
+    private final LongAdder accesses = new LongAdder();
+    private final LongAdder creationNanos = new LongAdder();
+    private final LongAdder[] creations = new LongAdder[BUCKETS];
+
+    ServiceMetrics(Service<?> service) {
+        this.service = service;
+        for (int i = 0; i < BUCKETS; i++)
+            creations[i] = new LongAdder();
+    }
+
+    void access() {
+        accesses.increment();
+    }
+
+    void creation(long nanos) {
+        creationNanos.add(nanos);
+        creations[bucket(nanos)].increment();
+    }
+
+    MetricsSnapshot.ServiceSnapshot snapshot() {
+        final long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            histogram[i] = creations[i].sum();
+        return new MetricsSnapshot.ServiceSnapshot(service, accesses.sum(), creationNanos.sum(), histogram);
+    }
+}
@@ -0,0 +1,145 @@
+package org.yah.sinject.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runtime counters of a {@link DefaultServices}, enabled with {@link DefaultServicesBuilder#withMetrics()}:
+ * lookups outcome, and access count and creation latency of each service.<br>
+ * Counters are striped {@link LongAdder}, so that concurrent lookups and accesses do not contend. Without
+ * metrics, the services only pay a null check.
+ */
+public final class ServicesMetrics implements ServicesMetricsMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServicesMetrics.class);
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final Map<Service<?>, ServiceMetrics> servicesMetrics = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    ServicesMetrics() {
+    }
+
+    void lookup(ServiceResolution resolution) {
+        lookups.increment();
+        if (resolution.isResolved())
+            hits.increment();
+        else if (resolution.isConflicting())
+            conflicts.increment();
+        else
+            misses.increment();
+    }
+
+    ServiceMetrics register(Service<?> service) {
+        return servicesMetrics.computeIfAbsent(service, ServiceMetrics::new);
+    }
+
+    /**
+     * @return the current counters, services sorted by priority
+     */
+    public MetricsSnapshot snapshot() {
+        final List<MetricsSnapshot.ServiceSnapshot> services = new ArrayList<>(servicesMetrics.size());
+        servicesMetrics.values().forEach(m -> services.add(m.snapshot()));
+        services.sort(Comparator.comparing(MetricsSnapshot.ServiceSnapshot::service));
+        return new MetricsSnapshot(lookups.sum(), hits.sum(), misses.sum(), conflicts.sum(), services);
+    }
+
+    @Override
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public Map<String, Long> getAccesses() {
+        return byName(MetricsSnapshot.ServiceSnapshot::accesses);
+    }
+
+    @Override
+    public Map<String, Long> getCreations() {
+        return byName(MetricsSnapshot.ServiceSnapshot::creations);
+    }
+
+    @Override
+    public Map<String, Long> getCreationLatencyP50() {
+        return byName(s -> s.creationLatency(0.5).toNanos());
+    }
+
+    @Override
+    public Map<String, Long> getCreationLatencyP99() {
+        return byName(s -> s.creationLatency(0.99).toNanos());
+    }
+
+    private Map<String, Long> byName(ToLongFunction<MetricsSnapshot.ServiceSnapshot> value) {
+        final Map<String, Long> values = new TreeMap<>();
+        for (ServiceMetrics metrics : servicesMetrics.values()) {
+            final MetricsSnapshot.ServiceSnapshot snapshot = metrics.snapshot();
+            values.merge(snapshot.service().name(), value.applyAsLong(snapshot), Long::sum);
+        }
+        return values;
+    }
+
+    /**
+     * Register this metrics in the platform MBean server, failures are logged.
+     */
+    void registerMBean(String name) {
+        try {
+            final ObjectName objectName = new ObjectName("org.yah.sinject:type=Services,name=" +
+                    ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException e) {
+            LOGGER.warn("Error registering services metrics MBean {}", name, e);
+        }
+    }
+
+    /**
+     * @return the registered MBean name, null if not registered
+     */
+    public ObjectName objectName() {
+        return objectName;
+    }
+
+    void unregisterMBean() {
+        final ObjectName registered = objectName;
+        if (registered == null)
+            return;
+        objectName = null;
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(registered))
+                server.unregisterMBean(registered);
+        } catch (JMException e) {
+            LOGGER.warn("Error unregistering services metrics MBean {}", registered, e);
+        }
+    }
+}
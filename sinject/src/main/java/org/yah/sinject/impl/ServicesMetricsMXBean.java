@@ -0,0 +1,33 @@
+package org.yah.sinject.impl;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link ServicesMetrics} of a {@link DefaultServices}, registered as
+ * <code>org.yah.sinject:type=Services,name=&lt;services name&gt;</code>.<br>
+ * Per service values are keyed by service name.
+ */
+public interface ServicesMetricsMXBean {
+
+    long getLookups();
+
+    long getHits();
+
+    long getMisses();
+
+    long getConflicts();
+
+    Map<String, Long> getAccesses();
+
+    Map<String, Long> getCreations();
+
+    /**
+     * @return the median creation latency upper bound, in nanoseconds
+     */
+    Map<String, Long> getCreationLatencyP50();
+
+    /**
+     * @return the 99th percentile creation latency upper bound, in nanoseconds
+     */
+    Map<String, Long> getCreationLatencyP99();
+}
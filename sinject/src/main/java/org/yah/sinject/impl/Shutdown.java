@@ -0,0 +1,141 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Close services in reverse dependency order: a service is closed once all the services depending on it are
+ * closed.<br>
+ * With an {@link Executor}, independent services are closed concurrently, and a service that does not close
+ * within the timeout is reported as timed out and no longer waited for. Since it may still be closing, its
+ * dependencies are kept open and reported as such, transitively. Without executor, services are closed
+ * sequentially on the calling thread, each close runs to completion, and the services slower than the timeout
+ * are only reported as timed out once closed.<br>
+ * Services unknown to the {@link DependencyGraph} are closed last, since any service may depend on them: they are
+ * kept open if any other service timed out or was kept open.
+ */
+final class Shutdown {
+
+    private final List<Service<?>> services;
+    private final DependencyGraph graph;
+    private final Executor executor;
+    private final Duration timeout;
+
+    private final Queue<ShutdownReport.Entry> entries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param services the services to close, sorted by priority
+     * @param executor the executor used to close services, null to close on the calling thread
+     */
+    Shutdown(List<Service<?>> services, DependencyGraph graph, Executor executor, Duration timeout) {
+        this.services = Objects.requireNonNull(services, "services is null");
+        this.graph = Objects.requireNonNull(graph, "graph is null");
+        this.executor = executor;
+        this.timeout = Objects.requireNonNull(timeout, "timeout is null");
+    }
+
+    ShutdownReport run() {
+        final long start = System.nanoTime();
+        final Set<Service<?>> remainings = new LinkedHashSet<>(services);
+        // dependents first
+        final List<Service<?>> closeOrder = new ArrayList<>(graph.services());
+        Collections.reverse(closeOrder);
+        closeOrder.removeIf(s -> !remainings.remove(s));
+        final List<Service<?>> unknowns = new ArrayList<>(remainings);
+        Collections.reverse(unknowns);
+
+        if (executor == null) {
+            closeOrder.forEach(this::closeNow);
+            unknowns.forEach(this::closeNow);
+        } else {
+            closeConcurrently(closeOrder, unknowns);
+        }
+        return new ShutdownReport(new ArrayList<>(entries), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void closeNow(Service<?> service) {
+        final long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            service.close();
+        } catch (RuntimeException | Error e) {
+            error = e;
+        }
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        entries.add(new ShutdownReport.Entry(service, duration, error, duration.compareTo(timeout) > 0));
+    }
+
+    private void closeConcurrently(List<Service<?>> closeOrder, List<Service<?>> unknowns) {
+        final Set<Service<?>> closing = new HashSet<>(closeOrder);
+        final Map<Service<?>, List<Service<?>>> dependents = new HashMap<>();
+        for (Service<?> service : closeOrder) {
+            for (Service<?> dependency : graph.dependencies(service)) {
+                if (closing.contains(dependency))
+                    dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(service);
+            }
+        }
+
+        // completed with false if the service may still be open: timed out or kept open
+        final Map<Service<?>, CompletableFuture<Boolean>> closed = new HashMap<>();
+        for (Service<?> service : closeOrder) {
+            // dependents come first in close order
+            final List<CompletableFuture<Boolean>> dependentsClosed = dependents.getOrDefault(service, List.of())
+                    .stream()
+                    .map(closed::get)
+                    .collect(Collectors.toList());
+            closed.put(service, closeAfter(dependentsClosed, service));
+        }
+
+        final List<CompletableFuture<Boolean>> graphClosed = new ArrayList<>(closed.values());
+        final CompletableFuture<?>[] unknownsClosed = unknowns.stream()
+                .map(service -> closeAfter(graphClosed, service))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(graphClosed.toArray(CompletableFuture[]::new)).join();
+        CompletableFuture.allOf(unknownsClosed).join();
+    }
+
+    /**
+     * Close <code>service</code> once all of <code>dependents</code> are closed, or keep it open if any of them
+     * may still be open.
+     */
+    private CompletableFuture<Boolean> closeAfter(List<CompletableFuture<Boolean>> dependents, Service<?> service) {
+        return CompletableFuture.allOf(dependents.toArray(CompletableFuture[]::new)).thenCompose(v -> {
+            if (dependents.stream().allMatch(CompletableFuture::join))
+                return closeAsync(service);
+            entries.add(ShutdownReport.Entry.keptOpen(service));
+            return CompletableFuture.completedFuture(false);
+        });
+    }
+
+    /**
+     * @return a future completed with true once the service is closed, or with false once the close timed out.
+     * Never completed exceptionally.
+     */
+    private CompletableFuture<Boolean> closeAsync(Service<?> service) {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        // the entry must be reported before completing, so once completed the report is complete
+        final AtomicBoolean reported = new AtomicBoolean();
+        final long start = System.nanoTime();
+        CompletableFuture.runAsync(service::close, executor).whenComplete((v, error) -> {
+            if (reported.compareAndSet(false, true)) {
+                if (error instanceof CompletionException && error.getCause() != null)
+                    error = error.getCause();
+                entries.add(new ShutdownReport.Entry(service, Duration.ofNanos(System.nanoTime() - start), error,
+                        false));
+                done.complete(true);
+            }
+        });
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (reported.compareAndSet(false, true)) {
+                entries.add(new ShutdownReport.Entry(service, null, null, true));
+                done.complete(false);
+            }
+        });
+        return done;
+    }
+}
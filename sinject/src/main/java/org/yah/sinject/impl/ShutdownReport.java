@@ -0,0 +1,146 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.ServiceDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of a {@link DefaultServices#shutdown()}: the close outcome of each service, in completion order.
+ */
+public final class ShutdownReport {
+
+    private final List<Entry> entries;
+    private final Duration duration;
+
+    ShutdownReport(List<Entry> entries, Duration duration) {
+        this.entries = List.copyOf(entries);
+        this.duration = Objects.requireNonNull(duration, "duration is null");
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return the services whose close failed
+     */
+    public List<Entry> failures() {
+        return entries.stream().filter(e -> e.error != null).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the services that did not close within the close timeout, they may still be closing
+     */
+    public List<Entry> timedOut() {
+        return entries.stream().filter(e -> e.timedOut).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the services left open because a service that may depend on them timed out, see
+     * {@link DefaultServices#shutdown()}
+     */
+    public List<Entry> keptOpen() {
+        return entries.stream().filter(e -> e.keptOpen).collect(Collectors.toList());
+    }
+
+    public boolean isClean() {
+        return entries.stream().allMatch(e -> e.error == null && !e.timedOut && !e.keptOpen);
+    }
+
+    /**
+     * @return the whole shutdown duration
+     */
+    public Duration duration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("closed ").append(entries.size()).append(" services in ")
+                .append(duration.toMillis()).append("ms");
+        final List<Entry> failures = failures();
+        final List<Entry> timedOut = timedOut();
+        if (!failures.isEmpty()) {
+            sb.append(", ").append(failures.size()).append(" failed:");
+            failures.forEach(e -> sb.append("\n  ").append(e.service).append(": ").append(e.error.getMessage()));
+        }
+        if (!timedOut.isEmpty()) {
+            sb.append(", ").append(timedOut.size()).append(" timed out:");
+            timedOut.forEach(e -> sb.append("\n  ").append(e.service));
+        }
+        final List<Entry> keptOpen = keptOpen();
+        if (!keptOpen.isEmpty()) {
+            sb.append(", ").append(keptOpen.size()).append(" kept open:");
+            keptOpen.forEach(e -> sb.append("\n  ").append(e.service));
+        }
+        return sb.toString();
+    }
+
+    public static final class Entry {
+        private final ServiceDefinition service;
+        private final Duration duration;
+        private final Throwable error;
+        private final boolean timedOut;
+        private final boolean keptOpen;
+
+        static Entry keptOpen(ServiceDefinition service) {
+            return new Entry(service, null, null, false, true);
+        }
+
+        Entry(ServiceDefinition service, Duration duration, Throwable error, boolean timedOut) {
+            this(service, duration, error, timedOut, false);
+        }
+
+        private Entry(ServiceDefinition service, Duration duration, Throwable error, boolean timedOut,
+                      boolean keptOpen) {
+            this.service = Objects.requireNonNull(service, "service is null");
+            this.duration = duration;
+            this.error = error;
+            this.timedOut = timedOut;
+            this.keptOpen = keptOpen;
+        }
+
+        public ServiceDefinition service() {
+            return service;
+        }
+
+        /**
+         * @return the service close duration, null if timed out or kept open
+         */
+        public Duration duration() {
+            return duration;
+        }
+
+        /**
+         * @return the close error, null if closed successfully or timed out
+         */
+        public Throwable error() {
+            return error;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * @return true if not closed, because a service that may depend on it timed out while closing
+         */
+        public boolean isKeptOpen() {
+            return keptOpen;
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "service=" + service +
+                    ", duration=" + duration +
+                    ", error=" + error +
+                    ", timedOut=" + timedOut +
+                    ", keptOpen=" + keptOpen +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Dependency graph of the services created by a {@link DefaultServicesBuilder}, with the resolution and
+ * instantiation duration of each service, see {@link DefaultServices#startupReport()}.<br>
+ * The critical path is the chain of dependencies with the longest cumulated duration: it bounds the startup
+ * duration when independent services are created concurrently.
+ */
+public final class StartupReport {
+
+    private final List<Node> nodes;
+    private final List<Node> criticalPath;
+
+    StartupReport(DependencyGraph graph) {
+        final Map<Service<?>, Node> nodesByService = new HashMap<>();
+        final List<Node> nodes = new ArrayList<>(graph.services().size());
+        for (Service<?> service : graph.services()) {
+            final long instantiationNanos = service instanceof DefaultService ?
+                    ((DefaultService<?>) service).instantiationNanos() : -1;
+            final Node node = new Node(nodes.size(), service, graph.resolutionNanos(service), instantiationNanos);
+            // dependencies come first, dependencies from parent are not part of the graph
+            for (Service<?> dependency : graph.dependencies(service)) {
+                final Node dependencyNode = nodesByService.get(dependency);
+                if (dependencyNode != null)
+                    node.dependencies.add(dependencyNode);
+            }
+            node.dependencies.forEach(d -> {
+                if (node.criticalDependency == null || d.pathNanos > node.criticalDependency.pathNanos)
+                    node.criticalDependency = d;
+            });
+            node.pathNanos = node.selfNanos();
+            if (node.criticalDependency != null)
+                node.pathNanos += node.criticalDependency.pathNanos;
+            nodesByService.put(service, node);
+            nodes.add(node);
+        }
+        this.nodes = Collections.unmodifiableList(nodes);
+
+        Node last = null;
+        for (Node node : nodes) {
+            if (last == null || node.pathNanos > last.pathNanos)
+                last = node;
+        }
+        final LinkedList<Node> path = new LinkedList<>();
+        for (Node node = last; node != null; node = node.criticalDependency) {
+            node.critical = true;
+            path.addFirst(node);
+        }
+        this.criticalPath = Collections.unmodifiableList(path);
+    }
+
+    /**
+     * @return the services nodes, ordered after their dependencies
+     */
+    public List<Node> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the critical path nodes, from the first created dependency to the last created service
+     */
+    public List<Node> criticalPath() {
+        return criticalPath;
+    }
+
+    public Duration criticalPathDuration() {
+        if (criticalPath.isEmpty())
+            return Duration.ZERO;
+        return Duration.ofNanos(criticalPath.get(criticalPath.size() - 1).pathNanos);
+    }
+
+    /**
+     * @return the nodes as a JSON document, dependencies referencing the nodes ids
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder("{\"criticalPathNanos\":").append(criticalPathDuration().toNanos())
+                .append(",\"nodes\":[");
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            if (i > 0)
+                sb.append(',');
+            sb.append("{\"id\":").append(node.id)
+                    .append(",\"name\":").append(quote(node.service.name()))
+                    .append(",\"type\":").append(quote(node.service.type().getTypeName()))
+                    .append(",\"priority\":").append(node.service.priority())
+                    .append(",\"resolutionNanos\":").append(node.resolutionNanos)
+                    .append(",\"instantiationNanos\":").append(node.instantiationNanos)
+                    .append(",\"critical\":").append(node.critical)
+                    .append(",\"dependencies\":[");
+            for (int j = 0; j < node.dependencies.size(); j++) {
+                if (j > 0)
+                    sb.append(',');
+                sb.append(node.dependencies.get(j).id);
+            }
+            sb.append("]}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * @return the graph in Graphviz DOT format, edges going from a service to its dependencies, critical path
+     * in red
+     */
+    public String toDot() {
+        final StringBuilder sb = new StringBuilder("digraph services {\n  node [shape=box];\n");
+        for (Node node : nodes) {
+            sb.append("  n").append(node.id).append(" [label=")
+                    .append(quote(node.service.name() + "\n" + node.service.type().getTypeName() + "\n"
+                            + formatMillis(node.selfNanos())));
+            if (node.critical)
+                sb.append(", color=red");
+            sb.append("];\n");
+        }
+        for (Node node : nodes) {
+            for (Node dependency : node.dependencies) {
+                sb.append("  n").append(node.id).append(" -> n").append(dependency.id);
+                if (node.critical && node.criticalDependency == dependency)
+                    sb.append(" [color=red]");
+                sb.append(";\n");
+            }
+        }
+        return sb.append("}\n").toString();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("created ").append(nodes.size())
+                .append(" services, critical path ").append(formatMillis(criticalPathDuration().toNanos())).append(':');
+        criticalPath.forEach(n -> sb.append("\n  ").append(n.service).append(": ")
+                .append(formatMillis(n.selfNanos())));
+        return sb.toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1E6);
+    }
+
+    /**
+     * @return the quoted and escaped string, valid in both JSON and DOT
+     */
+    private static String quote(String s) {
+        final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static final class Node {
+        private final int id;
+        private final ServiceDefinition service;
+        private final long resolutionNanos;
+        private final long instantiationNanos;
+        private final List<Node> dependencies = new ArrayList<>();
+        private Node criticalDependency;
+        private long pathNanos;
+        private boolean critical;
+
+        private Node(int id, ServiceDefinition service, long resolutionNanos, long instantiationNanos) {
+            this.id = id;
+            this.service = service;
+            this.resolutionNanos = resolutionNanos;
+            this.instantiationNanos = instantiationNanos;
+        }
+
+        public ServiceDefinition service() {
+            return service;
+        }
+
+        /**
+         * @return the dependencies created by the same builder
+         */
+        public List<Node> dependencies() {
+            return Collections.unmodifiableList(dependencies);
+        }
+
+        /**
+         * @return the declaration resolution duration, excluding its dependencies resolution
+         */
+        public Duration resolutionTime() {
+            return Duration.ofNanos(resolutionNanos);
+        }
+
+        /**
+         * @return the first instance creation duration, excluding its dependencies creation, null if not created
+         */
+        public Duration instantiationTime() {
+            return instantiationNanos < 0 ? null : Duration.ofNanos(instantiationNanos);
+        }
+
+        public boolean isCritical() {
+            return critical;
+        }
+
+        private long selfNanos() {
+            return resolutionNanos + Math.max(instantiationNanos, 0);
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "service=" + service +
+                    ", resolutionTime=" + resolutionTime() +
+                    ", instantiationTime=" + instantiationTime() +
+                    ", critical=" + critical +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.yah.sinject.impl;
+
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceResolution;
+
+/**
+ * Records the services activity as Java Flight Recorder events, see {@link JfrTracing}.<br>
+ * The <code>jdk.jfr</code> classes are only loaded if available in the running JDK, otherwise, or if the
+ * <code>sinject.jfr</code> system property is <code>false</code>, nothing is recorded and spans are a shared no-op.
+ */
+interface Tracing {
+
+    String JFR_PROPERTY = "sinject.jfr";
+
+    static Tracing get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param services the name of the services being built, null if unnamed
+     * @param phase    the build phase
+     */
+    Span buildPhase(String services, String phase);
+
+    Span instantiation(ServiceDefinition service, String scope);
+
+    /**
+     * @param kind "declaration" or "instance"
+     */
+    Span transformation(ServiceDefinition service, Object transformer, String kind);
+
+    void resolutionFailed(ServiceResolution resolution);
+
+    /**
+     * An operation being recorded, recorded once closed.
+     */
+    interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    final class Holder {
+        private static final Tracing INSTANCE = create();
+
+        private Holder() {
+        }
+
+        private static Tracing create() {
+            if (!Boolean.parseBoolean(System.getProperty(JFR_PROPERTY, "true")))
+                return NoTracing.INSTANCE;
+            try {
+                Class.forName("jdk.jfr.Event", false, Tracing.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                return NoTracing.INSTANCE;
+            }
+            return JfrTracing.create();
+        }
+    }
+
+    final class NoTracing implements Tracing, Span {
+        static final NoTracing INSTANCE = new NoTracing();
+
+        private NoTracing() {
+        }
+
+        @Override
+        public Span buildPhase(String services, String phase) {
+            return this;
+        }
+
+        @Override
+        public Span instantiation(ServiceDefinition service, String scope) {
+            return this;
+        }
+
+        @Override
+        public Span transformation(ServiceDefinition service, Object transformer, String kind) {
+            return this;
+        }
+
+        @Override
+        public void resolutionFailed(ServiceResolution resolution) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.yah.sinject.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.builder.PlannedResolver;
+import org.yah.sinject.impl.builder.WiringDecisions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Wiring decisions of a {@link DefaultServicesBuilder}, persisted in a binary file to be replayed on the next
+ * build, see {@link DefaultServicesBuilder#withWiringPlan(Path)}.<br>
+ * The plan records the chosen constructor of each declaration, and the order of the transformers. It is bound to a
+ * fingerprint of the registered declarations: a plan with another fingerprint is ignored, and recorded again.<br>
+ * A replayed plan is only a hint, the planned constructor is checked against the candidates that could resolve more
+ * dependencies: a change of the declared classes or of the parent services can not make it wrong, so the
+ * fingerprint does not cover them.
+ * <p>
+ * File layout, big endian, strings as an int length followed by UTF-8 bytes:
+ * <pre>
+ * int magic, int version, long fingerprint
+ * int transformers count, transformer keys
+ * int declarations count, { declaration key, int constructor }
+ * int CRC32 of all the previous bytes
+ * </pre>
+ */
+final class WiringPlan {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WiringPlan.class);
+
+    private static final int MAGIC = 0x53495750; // SIWP
+    private static final int VERSION = 3;
+
+    /**
+     * @return the fingerprint of the declarations keys and scopes
+     */
+    static long fingerprint(Iterable<? extends ServiceDeclaration<?>> declarations) {
+        final CRC32 crc = new CRC32();
+        update(crc, System.getProperty("java.specification.version", ""));
+        for (ServiceDeclaration<?> declaration : declarations) {
+            update(crc, key(declaration));
+            update(crc, String.valueOf(declaration.scope()));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @return a stable key of a service or declaration, ignoring generated names
+     */
+    static String key(ServiceDefinition definition) {
+        final String name = PlannedResolver.isGeneratedName(definition.name(), definition.type()) ?
+                "" : definition.name();
+        return name + '|' + definition.type().getTypeName() + '|' + definition.priority();
+    }
+
+    /**
+     * @return an empty plan, recording the decisions of a full resolution
+     */
+    static WiringPlan create(long fingerprint) {
+        return new WiringPlan(fingerprint, null, new HashMap<>());
+    }
+
+    /**
+     * @return the plan stored in <code>file</code>, null if the file does not exist, is corrupted, or was recorded
+     * with another fingerprint
+     */
+    static WiringPlan load(Path file, long fingerprint) {
+        if (!Files.isRegularFile(file))
+            return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, fingerprint);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.warn("Ignoring invalid wiring plan {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    private static WiringPlan read(ByteBuffer buffer, long fingerprint) {
+        if (buffer.remaining() < 24 || buffer.getInt() != MAGIC)
+            throw new IllegalArgumentException("not a wiring plan");
+        final int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IllegalArgumentException("unsupported version " + version);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4))
+            throw new IllegalArgumentException("checksum mismatch");
+        if (buffer.getLong() != fingerprint) {
+            LOGGER.debug("Wiring plan fingerprint changed, resolving all declarations");
+            return null;
+        }
+
+        final int transformersCount = count(buffer);
+        final List<String> transformers = new ArrayList<>(transformersCount);
+        for (int i = 0; i < transformersCount; i++)
+            transformers.add(readString(buffer));
+
+        final int declarationsCount = count(buffer);
+        final Map<String, WiringDecisions> decisions = new HashMap<>(declarationsCount * 2);
+        for (int i = 0; i < declarationsCount; i++) {
+            final String key = readString(buffer);
+            decisions.put(key, WiringDecisions.of(buffer.getInt()));
+        }
+        if (buffer.remaining() != 4)
+            throw new IllegalArgumentException("unexpected trailing bytes");
+        return new WiringPlan(fingerprint, transformers, decisions);
+    }
+
+    private static int count(ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining())
+            throw new IllegalArgumentException("invalid count " + count);
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[count(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void update(CRC32 crc, String s) {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes.length >>> 24);
+        crc.update(bytes.length >>> 16);
+        crc.update(bytes.length >>> 8);
+        crc.update(bytes.length);
+        crc.update(bytes);
+    }
+
+    private final long fingerprint;
+    private final Map<String, WiringDecisions> decisions;
+    private List<String> transformers;
+    private boolean changed;
+
+    private WiringPlan(long fingerprint, List<String> transformers, Map<String, WiringDecisions> decisions) {
+        this.fingerprint = fingerprint;
+        this.transformers = transformers;
+        this.decisions = decisions;
+    }
+
+    /**
+     * @return true if the plan must be written: recorded by a full resolution, or completed by new decisions
+     */
+    boolean isChanged() {
+        return changed || decisions.values().stream().anyMatch(WiringDecisions::isChanged);
+    }
+
+    /**
+     * @return the decisions of a declaration, shared by the declarations with the same key
+     */
+    WiringDecisions decisions(ServiceDeclaration<?> declaration) {
+        return decisions.computeIfAbsent(key(declaration), k -> {
+            changed = true;
+            return new WiringDecisions();
+        });
+    }
+
+    /**
+     * Record the order of the transformers, or check it against the planned order.
+     *
+     * @return false if the planned order differs, the decisions taken with other transformers can not be replayed
+     */
+    boolean transformers(List<? extends ServiceDefinition> services) {
+        final List<String> keys = new ArrayList<>(services.size());
+        services.forEach(s -> keys.add(key(s)));
+        if (transformers == null) {
+            transformers = keys;
+            changed = true;
+            return true;
+        }
+        return transformers.equals(keys);
+    }
+
+    /**
+     * Write the plan in a temporary file, then move it to <code>file</code>, so that a concurrent build never
+     * loads a partial plan.
+     */
+    void write(Path file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(fingerprint);
+        final List<String> orderedTransformers = transformers == null ? List.of() : transformers;
+        out.writeInt(orderedTransformers.size());
+        for (String transformer : orderedTransformers)
+            writeString(out, transformer);
+        out.writeInt(decisions.size());
+        for (Map.Entry<String, WiringDecisions> entry : decisions.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().constructor());
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,57 @@
+package org.yah.sinject.impl.builder;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.ServiceResolver;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Resolver of a declaration dependencies, carrying its {@link WiringDecisions} to the constructor resolution.<br>
+ * Lookups are always resolved by the delegate: replaying a lookup winner would have to be checked against all the
+ * candidates of the lookup, which is the lookup itself.
+ */
+public final class PlannedResolver implements ServiceResolver {
+
+    /**
+     * @return the decisions of a planned resolver, null for other resolvers
+     */
+    public static WiringDecisions decisions(ServiceResolver resolver) {
+        return resolver instanceof PlannedResolver ? ((PlannedResolver) resolver).decisions : null;
+    }
+
+    /**
+     * @return true if the service name was generated from its type
+     */
+    public static boolean isGeneratedName(String name, Type type) {
+        final String prefix = type.getTypeName() + "@";
+        if (!name.startsWith(prefix) || name.length() == prefix.length())
+            return false;
+        for (int i = prefix.length(); i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if ((c < '0' || c > '9') && c != '-')
+                return false;
+        }
+        return true;
+    }
+
+    private final ServiceResolver delegate;
+    private final WiringDecisions decisions;
+
+    public PlannedResolver(ServiceResolver delegate, WiringDecisions decisions) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate is null");
+        this.decisions = Objects.requireNonNull(decisions, "decisions is null");
+    }
+
+    @Override
+    public Service<?> service(String name, Type type) throws ServiceResolutionException {
+        return tryService(name, type).get();
+    }
+
+    @Override
+    public ServiceResolution tryService(String name, Type type) {
+        return delegate.tryService(name, type);
+    }
+}
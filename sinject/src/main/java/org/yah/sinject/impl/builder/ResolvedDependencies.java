@@ -1,20 +1,27 @@
 package org.yah.sinject.impl.builder;
 
+import org.yah.sinject.builder.Arguments;
 import org.yah.sinject.exceptions.ServiceResolutionException;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public class ResolvedDependencies {
+public class ResolvedDependencies implements Arguments {
 
     private final List<ResolvedServiceDependency> resolvedDependencies;
 
+    /**
+     * argument plan: each dependency supplies the argument at its index
+     */
+    private final ResolvedServiceDependency[] arguments;
+
     private final boolean resolved;
     private final int resolvedCount;
 
     public ResolvedDependencies(Collection<ResolvedServiceDependency> resolvedDependencies) {
         this.resolvedDependencies = List.copyOf(resolvedDependencies);
+        this.arguments = this.resolvedDependencies.toArray(new ResolvedServiceDependency[0]);
         resolvedCount = (int)resolvedDependencies.stream().filter(ResolvedServiceDependency::isResolved).count();
         resolved = resolvedCount == resolvedDependencies.size();
     }
@@ -30,8 +37,45 @@ public class ResolvedDependencies {
         return resolvedCount;
     }
 
+    @Override
+    public int size() {
+        return arguments.length;
+    }
+
+    /**
+     * @return the value of the dependency at <code>index</code>
+     */
+    @Override
+    public Object get(int index) {
+        return arguments[index].get();
+    }
+
+    /**
+     * @return a new arguments array, filled with the dependencies values
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] values = new Object[arguments.length];
+        fill(values, 0);
+        return values;
+    }
+
+    /**
+     * @return a new arguments array, filled with the dependencies values
+     * @deprecated use {@link #toArray()}
+     */
+    @Deprecated
     public Object[] get() {
-        return resolvedDependencies.stream().map(ResolvedServiceDependency::get).toArray(Object[]::new);
+        return toArray();
+    }
+
+    /**
+     * Fill <code>target</code> with the dependencies values, starting at <code>offset</code>.
+     */
+    public void fill(Object[] target, int offset) {
+        for (int i = 0; i < arguments.length; i++) {
+            target[offset + i] = arguments[i].get();
+        }
     }
 
     public ServiceResolutionException getResolutionException() {
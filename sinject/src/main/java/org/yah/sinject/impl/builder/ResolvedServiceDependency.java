@@ -0,0 +1,87 @@
+package org.yah.sinject.impl.builder;
+
+import org.yah.sinject.Provider;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+
+import java.util.Objects;
+import java.util.Optional;
+
+public class ResolvedServiceDependency {
+    private final ServiceDependency dependency;
+    private final Service<?> service;
+    // failed resolution, the exception is created when reported
+    private final ServiceResolution failedResolution;
+    // created once, shared by all the instances created with this dependency
+    private final Provider<?> provider;
+    // value not depending on the service instance: provider or empty optional, null if none
+    private final Object constant;
+    // last optional value, reused while the service returns the same instance
+    private volatile Optional<?> optionalValue;
+
+    public ResolvedServiceDependency(ServiceDependency dependency, Service<?> service) {
+        this.dependency = Objects.requireNonNull(dependency, "dependency is null");
+        this.service = service;
+        this.failedResolution = null;
+        this.provider = service != null && dependency.isProvider() ? service::get : null;
+        this.constant = constant(dependency, service, provider);
+    }
+
+    public ResolvedServiceDependency(ServiceDependency dependency, ServiceResolutionException resolutionException) {
+        this(dependency, ServiceResolution.failed(resolutionException));
+    }
+
+    public ResolvedServiceDependency(ServiceDependency dependency, ServiceResolution resolution) {
+        this.dependency = Objects.requireNonNull(dependency, "dependency is null");
+        Objects.requireNonNull(resolution, "resolution is null");
+        this.service = resolution.isResolved() ? resolution.get() : null;
+        this.failedResolution = resolution.isResolved() ? null : resolution;
+        this.provider = service != null && dependency.isProvider() ? service::get : null;
+        this.constant = constant(dependency, service, provider);
+    }
+
+    private static Object constant(ServiceDependency dependency, Service<?> service, Provider<?> provider) {
+        if (service == null)
+            return dependency.isOptional() ? Optional.empty() : null;
+        if (provider != null)
+            return dependency.isOptional() ? Optional.of(provider) : provider;
+        return null;
+    }
+
+    public boolean isResolved() {
+        return service != null || dependency.isOptional();
+    }
+
+    public boolean isOptional() {
+        return dependency.isOptional();
+    }
+
+    public Optional<ServiceResolutionException> getResolutionException() {
+        return failedResolution == null ? Optional.empty() : Optional.of(failedResolution.exception());
+    }
+
+    @Override
+    public String toString() {
+        return dependency.toString();
+    }
+
+    public Object get() {
+        if (constant != null)
+            return constant;
+        if (service == null) {
+            // should not happen, dependency resolution check is done at build time
+            throw new IllegalStateException("unresolved dependency: " + this);
+        }
+        final Object value = service.get();
+        if (!dependency.isOptional())
+            return value;
+        Optional<?> current = optionalValue;
+        if (current == null || current.get() != value) {
+            current = Optional.of(value);
+            optionalValue = current;
+        }
+        return current;
+    }
+
+}
@@ -3,6 +3,7 @@ package org.yah.sinject.impl.builder;
 import org.yah.sinject.Parametric;
 import org.yah.sinject.builder.ServiceDeclaration;
 import org.yah.sinject.builder.ServiceInstanceFactory;
+import org.yah.sinject.builder.ServiceScope;
 import org.yah.sinject.impl.builder.declarations.DefaultServiceDeclaration;
 import org.yah.sinject.impl.DefaultServicesBuilder;
 import org.yah.sinject.impl.builder.declarations.ClassInstanceDeclaration;
@@ -27,6 +28,7 @@ public final class ServiceDeclarationBuilder<T> {
 
     private String name;
     private int priority;
+    private String scope;
 
     private ServiceInstanceFactory<T> instanceFactory;
     private ServiceDependencies dependencies = ServiceDependencies.EMPTY;
@@ -46,6 +48,14 @@ public final class ServiceDeclarationBuilder<T> {
         return this;
     }
 
+    /**
+     * @param scope the name of the service scope, null to use the class annotated constructor scope, or singleton
+     */
+    public ServiceDeclarationBuilder<T> withScope(String scope) {
+        this.scope = scope;
+        return this;
+    }
+
     public ServiceDeclarationBuilder<T> withInstanceFactory(ServiceInstanceFactory<T> instanceFactory) {
         this.instanceFactory = instanceFactory;
         return this;
@@ -66,14 +76,17 @@ public final class ServiceDeclarationBuilder<T> {
         if (instanceFactory == null) {
             //noinspection unchecked
             final Class<T> serviceClass = (Class<T>) getRawType(serviceType, null);
-            declaration = ClassInstanceDeclaration.builder(serviceClass)
+            final ClassInstanceDeclaration.Builder<T> builder = ClassInstanceDeclaration.builder(serviceClass)
                     .withPriority(priority)
-                    .withName(name)
-                    .build();
+                    .withName(name);
+            if (scope != null)
+                builder.withScope(scope);
+            declaration = builder.build();
         } else {
             declaration = DefaultServiceDeclaration.<T>builder(serviceType)
                     .withName(name)
                     .withPriority(priority)
+                    .withScope(scope != null ? scope : ServiceScope.SINGLETON)
                     .withDependencies(dependencies)
                     .withFactory(instanceFactory)
                     .build();
@@ -3,6 +3,7 @@ package org.yah.sinject.impl.builder;
 import org.yah.sinject.ServiceResolver;
 
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -46,6 +47,11 @@ public class ServiceDependencies {
             return this;
         }
 
+        public Builder addParameter(String name, Type type) {
+            dependencies.add(ServiceDependency.fromParameter(name, type));
+            return this;
+        }
+
         public Builder addParameters(Parameter[] parameters) {
             Arrays.stream(parameters).map(ServiceDependency::fromParameter).forEach(dependencies::add);
             return this;
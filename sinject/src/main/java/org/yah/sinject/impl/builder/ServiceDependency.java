@@ -0,0 +1,122 @@
+package org.yah.sinject.impl.builder;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.yah.sinject.Provider;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.ServiceResolver;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+import org.yah.sinject.impl.AssignabilityCache;
+import org.yah.sinject.impl.DefaultService;
+import org.yah.sinject.impl.scopes.PooledScope;
+
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.yah.sinject.impl.DefaultServicesBuilder.optionalArgument;
+
+public class ServiceDependency {
+
+    public static ServiceDependency fromDefinition(ServiceDefinition definition, boolean optional) {
+        return new ServiceDependency(definition.type(), definition.name(), optional, false);
+    }
+
+    public static ServiceDependency fromParameter(Parameter parameter) {
+        return fromParameter(parameter.getName(), parameter.getParameterizedType());
+    }
+
+    /**
+     * Create the dependency of a constructor or method parameter.<br>
+     * <code>Optional&lt;T&gt;</code> parameters are optional dependencies, <code>Provider&lt;T&gt;</code> parameters
+     * (or <code>Optional&lt;Provider&lt;T&gt;&gt;</code>) are resolved, but the instance is created on first use.
+     */
+    public static ServiceDependency fromParameter(String name, Type type) {
+        boolean optional = false;
+        if (AssignabilityCache.isAssignable(type, Optional.class)) {
+            optional = true;
+            type = optionalArgument(type);
+        }
+        boolean provider = false;
+        if (TypeUtils.getRawType(type, null) == Provider.class) {
+            provider = true;
+            type = providerArgument(type);
+        }
+        return new ServiceDependency(type, name, optional, provider);
+    }
+
+    private static Type providerArgument(Type type) {
+        final Map<TypeVariable<?>, Type> arguments = TypeUtils.getTypeArguments(type, Provider.class);
+        final Type argument = arguments.isEmpty() ? null : arguments.values().iterator().next();
+        if (argument instanceof WildcardType)
+            return ((WildcardType) argument).getUpperBounds()[0];
+        return argument != null ? argument : Object.class;
+    }
+
+    private final Type type;
+    private final String name;
+    private final boolean optional;
+    private final boolean provider;
+
+    public ServiceDependency(Type type, String name, boolean optional) {
+        this(type, name, optional, false);
+    }
+
+    public ServiceDependency(Type type, String name, boolean optional, boolean provider) {
+        this.type = type;
+        this.name = name;
+        this.optional = optional;
+        this.provider = provider;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * @return true if this dependency is injected as a {@link Provider}
+     */
+    public boolean isProvider() {
+        return provider;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "type=" + type +
+                ", name='" + name + '\'' +
+                ", optional=" + optional +
+                ", provider=" + provider +
+                '}';
+    }
+
+    /**
+     * @throws ServiceResolutionException if resolved to a pooled service, whatever the other candidates
+     */
+    public ResolvedServiceDependency resolve(ServiceResolver resolver) {
+        ServiceResolution resolution = resolver.tryService(name, type);
+        if (!resolution.isResolved() && name != null) {
+            final ServiceResolution typeResolution = resolver.tryService(null, type);
+            // report the failure of the named lookup
+            if (typeResolution.isResolved())
+                resolution = typeResolution;
+        }
+        if (resolution.isResolved() && isPooled(resolution.get())) {
+            throw new ServiceResolutionException(name, type, "service " + resolution.get() +
+                    " is pooled and can only be leased, depend on Services and use Service.lease()");
+        }
+        return new ResolvedServiceDependency(this, resolution);
+    }
+
+    /**
+     * Pooled instances are only reachable through {@link Service#lease()}, they can not be injected.
+     */
+    private static boolean isPooled(Service<?> service) {
+        return service instanceof DefaultService && ((DefaultService<?>) service).getScope() instanceof PooledScope;
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.yah.sinject.impl.builder;
+
+/**
+ * Wiring decisions taken while resolving a service declaration: the chosen constructor.<br>
+ * Recorded on each resolution, the planned constructor is only a hint checked against the other candidates, see
+ * {@link PlannedResolver}.
+ */
+public final class WiringDecisions {
+
+    /**
+     * @return the planned decisions, not changed until a new decision is recorded
+     */
+    public static WiringDecisions of(int constructor) {
+        final WiringDecisions decisions = new WiringDecisions();
+        decisions.constructor = constructor;
+        return decisions;
+    }
+
+    private int constructor = -1;
+    private boolean changed;
+
+    /**
+     * @return the index of the chosen candidate constructor, -1 if unknown
+     */
+    public int constructor() {
+        return constructor;
+    }
+
+    public void constructor(int index) {
+        if (index != constructor) {
+            constructor = index;
+            changed = true;
+        }
+    }
+
+    /**
+     * @return true if a decision was recorded since created
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+}
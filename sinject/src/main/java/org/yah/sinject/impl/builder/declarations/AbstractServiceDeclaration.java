@@ -1,6 +1,7 @@
 package org.yah.sinject.impl.builder.declarations;
 
 import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ServiceScope;
 
 import java.lang.reflect.Type;
 import java.util.Objects;
@@ -10,11 +11,13 @@ public abstract class AbstractServiceDeclaration<T> implements ServiceDeclaratio
     private final Type type;
     private final String name;
     private final int priority;
+    private final String scope;
 
     protected AbstractServiceDeclaration(AbstractBuilder<T, ?> builder) {
         this.type = builder.type;
         this.name = builder.name != null ? builder.name : type().getTypeName() + "@" + hashCode();
         this.priority = builder.priority;
+        this.scope = builder.scope;
     }
 
     @Override
@@ -32,12 +35,18 @@ public abstract class AbstractServiceDeclaration<T> implements ServiceDeclaratio
         return priority;
     }
 
+    @Override
+    public String scope() {
+        return scope;
+    }
+
     @Override
     public String toString() {
         return "ServiceDeclaration{" +
                 "type=" + type +
                 ", name='" + name + '\'' +
                 ", priority=" + priority +
+                ", scope='" + scope + '\'' +
                 '}';
     }
 
@@ -45,6 +54,7 @@ public abstract class AbstractServiceDeclaration<T> implements ServiceDeclaratio
         protected final Type type;
         protected String name;
         protected int priority;
+        protected String scope = ServiceScope.SINGLETON;
 
         protected AbstractBuilder(Type type) {
             this.type = Objects.requireNonNull(type, "type is null");
@@ -60,6 +70,11 @@ public abstract class AbstractServiceDeclaration<T> implements ServiceDeclaratio
             return getThis();
         }
 
+        public SELF withScope(String scope) {
+            this.scope = Objects.requireNonNull(scope, "scope is null");
+            return getThis();
+        }
+
         protected abstract SELF getThis();
 
     }
@@ -1,7 +1,8 @@
 package org.yah.sinject.impl.builder.declarations;
 
 import org.apache.commons.lang3.reflect.TypeUtils;
-import org.yah.sinject.annotations.Service;
+import org.yah.sinject.builder.ExecutableWiring;
+import org.yah.sinject.builder.MethodWiring;
 import org.yah.sinject.builder.ServiceDeclaration;
 import org.yah.sinject.impl.builder.ServiceDependencies;
 import org.yah.sinject.impl.DefaultServicesBuilder;
@@ -9,27 +10,23 @@ import org.yah.sinject.impl.builder.ResolvedDependencies;
 import org.yah.sinject.impl.builder.ServiceDependency;
 
 import java.lang.reflect.*;
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
-import static org.apache.commons.lang3.StringUtils.trimToNull;
-import static org.apache.commons.lang3.reflect.TypeUtils.isAssignable;
+import static org.yah.sinject.impl.AssignabilityCache.isAssignable;
 
 public final class AnnotatedMethod {
-    private final Method method;
-    private final Service annotation;
+    private final MethodWiring method;
     private final Type serviceType;
     private final boolean optional;
     private final boolean serviceClass;
 
-    public AnnotatedMethod(Method method, Service annotation) {
+    public AnnotatedMethod(MethodWiring method) {
         this.method = Objects.requireNonNull(method, "method is null");
-        this.annotation = Objects.requireNonNull(annotation, "annotation is null");
 
-        Type type = method.getGenericReturnType();
-        optional = isAssignable(method.getGenericReturnType(), Optional.class);
+        Type type = method.getReturnType();
+        optional = isAssignable(type, Optional.class);
         if (optional)
             type = DefaultServicesBuilder.optionalArgument(type);
 
@@ -63,42 +60,55 @@ public final class AnnotatedMethod {
     }
 
     public ServiceDependencies createDependencies(ServiceDeclaration<?> instanceDeclaration) {
+        return createDependencies(method, instanceDeclaration);
+    }
+
+    /**
+     * @return true if the service existence depends on a condition method
+     */
+    public boolean hasCondition() {
+        return method.getCondition().isPresent();
+    }
+
+    public ServiceDependencies createConditionDependencies(ServiceDeclaration<?> instanceDeclaration) {
+        return createDependencies(method.getCondition().orElseThrow(), instanceDeclaration);
+    }
+
+    public boolean testCondition(ResolvedDependencies resolvedDependencies) throws Exception {
+        final Object result = method.getCondition().orElseThrow().getInvoker().invoke(resolvedDependencies);
+        return Boolean.TRUE.equals(result);
+    }
+
+    private static ServiceDependencies createDependencies(MethodWiring method,
+                                                          ServiceDeclaration<?> instanceDeclaration) {
         final ServiceDependencies.Builder builder = ServiceDependencies.builder();
-        if (isNotStatic())
+        if (!method.isStatic())
             builder.addDependencies(ServiceDependency.fromDefinition(instanceDeclaration, false));
-        return builder.addParameters(method.getParameters()).build();
+        for (ExecutableWiring.Parameter parameter : method.getParameters()) {
+            builder.addParameter(parameter.getName(), parameter.getType());
+        }
+        return builder.build();
     }
 
     public String getName() {
-        String name = trimToNull(annotation.name());
-        if (name == null)
-            name = trimToNull(annotation.value());
-        if (name == null)
-            name = method.getName();
-        return name;
+        return method.getName();
+    }
+
+    public String getScope() {
+        return method.getScope();
     }
 
     public boolean isNotStatic() {
-        return !Modifier.isStatic(method.getModifiers());
+        return !method.isStatic();
     }
 
     public int getPriority() {
-        return annotation.priority();
+        return method.getPriority();
     }
 
-    public <T> T invoke(ResolvedDependencies resolvedDependencies) throws InvocationTargetException, IllegalAccessException {
-        Object[] dependencies = resolvedDependencies.get();
-        Object instance = null;
-        if (isNotStatic()) {
-            instance = dependencies[0];
-            dependencies = Arrays.copyOfRange(dependencies, 1, dependencies.length);
-        }
+    public <T> T invoke(ResolvedDependencies resolvedDependencies) throws Exception {
         //noinspection unchecked
-        return (T) method.invoke(instance, dependencies);
-    }
-
-    public void ensureAccessible() {
-        method.setAccessible(true);
+        return (T) method.getInvoker().invoke(resolvedDependencies);
     }
 
     private static Type classArgument(Type type) {
@@ -1,30 +1,36 @@
 package org.yah.sinject.impl.builder.declarations;
 
 import org.yah.sinject.ServiceResolver;
+import org.yah.sinject.builder.ConstructorWiring;
+import org.yah.sinject.builder.ExecutableWiring;
+import org.yah.sinject.impl.builder.ResolvedDependencies;
 import org.yah.sinject.impl.builder.ServiceDependencies;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Objects;
 
 public class CandidateConstuctor<T> {
 
-    public static <T> CandidateConstuctor<T> create(Constructor<T> constructor) {
-        ServiceDependencies dependencies = ServiceDependencies.builder()
-                .addParameters(constructor.getParameters())
-                .build();
-        return new CandidateConstuctor<>(constructor, dependencies);
+    public static <T> CandidateConstuctor<T> create(ConstructorWiring<T> constructor) {
+        final ServiceDependencies.Builder builder = ServiceDependencies.builder();
+        for (ExecutableWiring.Parameter parameter : constructor.getParameters()) {
+            builder.addParameter(parameter.getName(), parameter.getType());
+        }
+        return new CandidateConstuctor<>(constructor, builder.build());
     }
 
-    private final Constructor<T> constructor;
+    private final ConstructorWiring<T> constructor;
     private final ServiceDependencies dependencies;
 
-    public CandidateConstuctor(Constructor<T> constructor,
+    public CandidateConstuctor(ConstructorWiring<T> constructor,
                                ServiceDependencies dependencies) {
         this.constructor = Objects.requireNonNull(constructor, "constructor is null");
         this.dependencies = Objects.requireNonNull(dependencies, "dependencies is null");
     }
 
+    public int parameterCount() {
+        return constructor.getParameters().size();
+    }
+
     public ResolvedConstructor<T> resolve(ServiceResolver resolver) {
         return new ResolvedConstructor<>(this, dependencies.resolve(resolver));
     }
@@ -37,13 +43,8 @@ public class CandidateConstuctor<T> {
                 '}';
     }
 
-    public void ensureAccessible() {
-        if (!constructor.canAccess(null))
-            constructor.setAccessible(true);
-    }
-
-    T newInstance(Object[] params) throws IllegalAccessException, InvocationTargetException, InstantiationException {
-        return constructor.newInstance(params);
+    T newInstance(ResolvedDependencies dependencies) throws Exception {
+        return constructor.getInvoker().invoke(dependencies);
     }
 
 }
@@ -0,0 +1,104 @@
+package org.yah.sinject.impl.builder.declarations;
+
+import org.yah.sinject.ServiceResolver;
+import org.yah.sinject.builder.ConstructorWiring;
+import org.yah.sinject.impl.builder.PlannedResolver;
+import org.yah.sinject.impl.builder.WiringDecisions;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class CandidateConstuctors<T> {
+
+    public static <T> CandidateConstuctors<T> create(Class<T> type) {
+        final List<ConstructorWiring<T>> constructors = ServiceWirings.constructors(type);
+        final ConstructorWiring<T> annotated = constructors.stream()
+                .filter(ConstructorWiring::isAnnotated)
+                .findFirst().orElse(null);
+        List<CandidateConstuctor<T>> candidates;
+        String name = null;
+        Integer priority = null;
+        String scope = null;
+        if (annotated != null) {
+            name = annotated.getName().orElse(null);
+            scope = annotated.getScope().orElse(null);
+            priority = annotated.getPriority().orElseThrow();
+            candidates = Collections.singletonList(CandidateConstuctor.create(annotated));
+        } else {
+            candidates = constructors.stream()
+                    .map(CandidateConstuctor::create)
+                    .collect(Collectors.toList());
+        }
+        return new CandidateConstuctors<>(name, priority, scope, candidates);
+    }
+
+    private final String name;
+    private final Integer priority;
+    private final String scope;
+    private final List<CandidateConstuctor<T>> candidates;
+
+    private CandidateConstuctors(String name, Integer priority, String scope,
+                                 List<CandidateConstuctor<T>> candidates) {
+        this.name = name;
+        this.priority = priority;
+        this.scope = scope;
+        this.candidates = candidates;
+    }
+
+    public Optional<String> getName() {
+        return Optional.ofNullable(name);
+    }
+
+    public OptionalInt getPriority() {
+        return priority == null ? OptionalInt.empty() : OptionalInt.of(priority);
+    }
+
+    public Optional<String> getScope() {
+        return Optional.ofNullable(scope);
+    }
+
+    /**
+     * @return the resolved candidate with the most resolved dependencies, the first declared one on equal count.
+     * The candidate chosen by a wiring plan is resolved first, then only the candidates that could be better.
+     */
+    public Optional<ResolvedConstructor<T>> resolve(ServiceResolver resolver) {
+        final WiringDecisions decisions = PlannedResolver.decisions(resolver);
+        final int planned = decisions == null ? -1 : decisions.constructor();
+        ResolvedConstructor<T> best = null;
+        int bestIndex = -1;
+        if (planned >= 0 && planned < candidates.size()) {
+            final ResolvedConstructor<T> resolved = candidates.get(planned).resolve(resolver);
+            if (resolved.isResolved()) {
+                best = resolved;
+                bestIndex = planned;
+            }
+        }
+
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i == planned || !canBeBetter(i, best, bestIndex))
+                continue;
+            final ResolvedConstructor<T> resolved = candidates.get(i).resolve(resolver);
+            if (!resolved.isResolved())
+                continue;
+            final int compare = best == null ? -1 : resolved.compareTo(best);
+            if (compare < 0 || (compare == 0 && i < bestIndex)) {
+                best = resolved;
+                bestIndex = i;
+            }
+        }
+        if (decisions != null && best != null)
+            decisions.constructor(bestIndex);
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * A candidate can not resolve more dependencies than its parameters count.
+     */
+    private boolean canBeBetter(int index, ResolvedConstructor<T> best, int bestIndex) {
+        if (best == null)
+            return true;
+        final int parameterCount = candidates.get(index).parameterCount();
+        return parameterCount > best.resolvedCount() || (index < bestIndex && parameterCount == best.resolvedCount());
+    }
+
+}
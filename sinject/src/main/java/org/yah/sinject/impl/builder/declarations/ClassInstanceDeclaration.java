@@ -49,6 +49,7 @@ public class ClassInstanceDeclaration<T> extends AbstractServiceDeclaration<T> {
             constructors = CandidateConstuctors.create(serviceClass);
             constructors.getName().ifPresent(this::withName);
             constructors.getPriority().ifPresent(this::withPriority);
+            constructors.getScope().ifPresent(this::withScope);
         }
 
         public ClassInstanceDeclaration<T> build() {
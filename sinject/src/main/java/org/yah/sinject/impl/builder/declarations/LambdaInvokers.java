@@ -0,0 +1,217 @@
+package org.yah.sinject.impl.builder.declarations;
+
+import org.yah.sinject.builder.Arguments;
+import org.yah.sinject.builder.Invoker;
+
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * {@link Invoker} generated by the {@link LambdaMetafactory} for a constructor or a method, bound once when the
+ * wiring is created.<br>
+ * Each invoker is a class of its own, calling its target directly: once the invocation is inlined, the JIT can
+ * inline the target too, which it can not do through a {@link MethodHandle} stored in a field.<br>
+ * Only members accessible from this package, whose types are visible from its class loader, can be bound, up to
+ * {@link #MAX_ARITY} parameters, receiver included. The other members fall back to a {@link MethodHandleInvoker}.
+ */
+final class LambdaInvokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassLoader LOADER = LambdaInvokers.class.getClassLoader();
+
+    private static final int MAX_ARITY = 5;
+
+    private static final Class<?>[] FUNCTIONS = {
+            Function0.class, Function1.class, Function2.class, Function3.class, Function4.class, Function5.class
+    };
+
+    private LambdaInvokers() {
+    }
+
+    /**
+     * @param method an accessible method
+     * @return an invoker whose arguments start with the target instance if the method is not static
+     */
+    static Invoker<Object> create(Method method) throws IllegalAccessException {
+        final Invoker<Object> bound = method.getReturnType() == void.class ? null : bind(() -> {
+            final MethodType type = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+            if (Modifier.isStatic(method.getModifiers()))
+                return LOOKUP.findStatic(method.getDeclaringClass(), method.getName(), type);
+            return LOOKUP.findVirtual(method.getDeclaringClass(), method.getName(), type);
+        });
+        return bound != null ? bound : MethodHandleInvoker.create(method);
+    }
+
+    /**
+     * @param constructor an accessible constructor
+     */
+    static <T> Invoker<T> create(Constructor<T> constructor) throws IllegalAccessException {
+        final Invoker<Object> bound = Modifier.isAbstract(constructor.getDeclaringClass().getModifiers()) ? null :
+                bind(() -> LOOKUP.findConstructor(constructor.getDeclaringClass(),
+                        MethodType.methodType(void.class, constructor.getParameterTypes())));
+        //noinspection unchecked
+        return bound != null ? (Invoker<T>) bound : MethodHandleInvoker.create(constructor);
+    }
+
+    private interface TargetLookup {
+        MethodHandle find() throws ReflectiveOperationException;
+    }
+
+    /**
+     * @return the generated invoker, null if the target can not be bound
+     */
+    private static Invoker<Object> bind(TargetLookup lookup) {
+        final MethodHandle target;
+        try {
+            target = lookup.find();
+        } catch (ReflectiveOperationException e) {
+            // not accessible from this package
+            return null;
+        }
+        final MethodType type = target.type();
+        final int arity = type.parameterCount();
+        if (arity > MAX_ARITY || !isVisible(type.returnType()) || !type.parameterList().stream()
+                .allMatch(LambdaInvokers::isVisible))
+            return null;
+        try {
+            //noinspection unchecked
+            return (Invoker<Object>) LambdaMetafactory.metafactory(LOOKUP, "apply",
+                    MethodType.methodType(FUNCTIONS[arity]), MethodType.genericMethodType(arity), target,
+                    type.wrap()).getTarget().invoke();
+        } catch (LambdaConversionException e) {
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error binding " + target, e);
+        }
+    }
+
+    /**
+     * The generated class references the target types by name, they must resolve to the same classes from this
+     * class loader.
+     */
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive() || type.getClassLoader() == null || type.getClassLoader() == LOADER)
+            return true;
+        try {
+            return Class.forName(type.getName(), false, LOADER) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static void checkArity(int arity, int size) {
+        if (size != arity)
+            throw new IllegalArgumentException("expected " + arity + " arguments, got " + size);
+    }
+
+    @FunctionalInterface
+    interface Function0 extends Invoker<Object> {
+        Object apply();
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(0, arguments.size());
+            return apply();
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(0, arguments.length);
+            return apply();
+        }
+    }
+
+    @FunctionalInterface
+    interface Function1 extends Invoker<Object> {
+        Object apply(Object a0);
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(1, arguments.size());
+            return apply(arguments.get(0));
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(1, arguments.length);
+            return apply(arguments[0]);
+        }
+    }
+
+    @FunctionalInterface
+    interface Function2 extends Invoker<Object> {
+        Object apply(Object a0, Object a1);
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(2, arguments.size());
+            return apply(arguments.get(0), arguments.get(1));
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(2, arguments.length);
+            return apply(arguments[0], arguments[1]);
+        }
+    }
+
+    @FunctionalInterface
+    interface Function3 extends Invoker<Object> {
+        Object apply(Object a0, Object a1, Object a2);
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(3, arguments.size());
+            return apply(arguments.get(0), arguments.get(1), arguments.get(2));
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(3, arguments.length);
+            return apply(arguments[0], arguments[1], arguments[2]);
+        }
+    }
+
+    @FunctionalInterface
+    interface Function4 extends Invoker<Object> {
+        Object apply(Object a0, Object a1, Object a2, Object a3);
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(4, arguments.size());
+            return apply(arguments.get(0), arguments.get(1), arguments.get(2), arguments.get(3));
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(4, arguments.length);
+            return apply(arguments[0], arguments[1], arguments[2], arguments[3]);
+        }
+    }
+
+    @FunctionalInterface
+    interface Function5 extends Invoker<Object> {
+        Object apply(Object a0, Object a1, Object a2, Object a3, Object a4);
+
+        @Override
+        default Object invoke(Arguments arguments) {
+            checkArity(5, arguments.size());
+            return apply(arguments.get(0), arguments.get(1), arguments.get(2), arguments.get(3), arguments.get(4));
+        }
+
+        @Override
+        default Object invoke(Object[] arguments) {
+            checkArity(5, arguments.length);
+            return apply(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.yah.sinject.impl.builder.declarations;
+
+import org.yah.sinject.builder.Arguments;
+import org.yah.sinject.builder.Invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Objects;
+
+/**
+ * {@link Invoker} backed by a spread {@link MethodHandle}, bound once for a constructor or a method that
+ * {@link LambdaInvokers} can not bind: inaccessible from this package, or with more parameters.<br>
+ * Up to {@link #MAX_DIRECT_ARITY} arguments, {@link Arguments} are passed directly to the fixed arity handle,
+ * without allocating an arguments array.<br>
+ * Unlike reflection, exceptions thrown by the target are not wrapped.
+ */
+final class MethodHandleInvoker<T> implements Invoker<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final int MAX_DIRECT_ARITY = 5;
+
+    /**
+     * @param method an accessible method
+     * @return an invoker whose arguments start with the target instance if the method is not static
+     */
+    static MethodHandleInvoker<Object> create(Method method) throws IllegalAccessException {
+        return new MethodHandleInvoker<>(LOOKUP.unreflect(method));
+    }
+
+    /**
+     * @param constructor an accessible constructor
+     */
+    static <T> MethodHandleInvoker<T> create(Constructor<T> constructor) throws IllegalAccessException {
+        return new MethodHandleInvoker<>(LOOKUP.unreflectConstructor(constructor));
+    }
+
+    private final int arity;
+
+    /**
+     * (Object, ...)Object
+     */
+    private final MethodHandle fixed;
+
+    /**
+     * (Object[])Object
+     */
+    private final MethodHandle handle;
+
+    private MethodHandleInvoker(MethodHandle target) {
+        Objects.requireNonNull(target, "target is null");
+        this.arity = target.type().parameterCount();
+        this.fixed = target.asFixedArity().asType(MethodType.genericMethodType(arity));
+        this.handle = fixed.asSpreader(Object[].class, arity);
+    }
+
+    @Override
+    public T invoke(Object[] arguments) throws Exception {
+        try {
+            //noinspection unchecked
+            return (T) (Object) handle.invokeExact(arguments);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    @Override
+    public T invoke(Arguments arguments) throws Exception {
+        if (arity > MAX_DIRECT_ARITY || arguments.size() != arity)
+            return invoke(arguments.toArray());
+        try {
+            final Object result;
+            switch (arity) {
+                case 0:
+                    result = fixed.invokeExact();
+                    break;
+                case 1:
+                    result = fixed.invokeExact(arguments.get(0));
+                    break;
+                case 2:
+                    result = fixed.invokeExact(arguments.get(0), arguments.get(1));
+                    break;
+                case 3:
+                    result = fixed.invokeExact(arguments.get(0), arguments.get(1), arguments.get(2));
+                    break;
+                case 4:
+                    result = fixed.invokeExact(arguments.get(0), arguments.get(1), arguments.get(2),
+                            arguments.get(3));
+                    break;
+                default:
+                    result = fixed.invokeExact(arguments.get(0), arguments.get(1), arguments.get(2),
+                            arguments.get(3), arguments.get(4));
+                    break;
+            }
+            //noinspection unchecked
+            return (T) result;
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+}
@@ -41,10 +41,23 @@ public class MethodServiceDeclaration<T> extends AbstractServiceDeclaration<T> {
     }
 
     private InstanceSupplier<? extends T> createSupplier(ServiceResolver resolver) {
+        if (method.hasCondition() && !testCondition(resolver))
+            return null;
+
         final ServiceDependencies dependencies = method.createDependencies(instanceDeclaration);
         final ResolvedDependencies resolvedDependencies = dependencies.resolve(resolver);
         final MethodInvocationSupplier<?> methodInstanceSupplier = new MethodInvocationSupplier<>(method, resolvedDependencies);
 
+        if (method.hasCondition() && method.isOptional() && !method.isServiceClass()) {
+            // the condition tells that the service exists, create the instance when needed
+            return () -> {
+                //noinspection unchecked
+                final Optional<T> optional = (Optional<T>) methodInstanceSupplier.get();
+                return optional.orElseThrow(() -> new ServiceCreationException(this,
+                        "optional service is empty, but its condition is true"));
+            };
+        }
+
         T optionalValue = null;
         if (method.isOptional()) {
             // for optional service, create the instance now in order to make the declaration
@@ -92,6 +105,16 @@ public class MethodServiceDeclaration<T> extends AbstractServiceDeclaration<T> {
         }
     }
 
+    private boolean testCondition(ServiceResolver resolver) {
+        final ServiceDependencies dependencies = method.createConditionDependencies(instanceDeclaration);
+        final ResolvedDependencies resolvedDependencies = dependencies.resolve(resolver);
+        try {
+            return method.testCondition(resolvedDependencies);
+        } catch (Exception e) {
+            throw new ServiceCreationException(this, "error evaluating service condition", e);
+        }
+    }
+
     public static class Builder<T> extends AbstractBuilder<T, Builder<T>> {
         private final ServiceDeclaration<?> classDeclaration;
         private final AnnotatedMethod method;
@@ -100,7 +123,7 @@ public class MethodServiceDeclaration<T> extends AbstractServiceDeclaration<T> {
             super(method.getServiceType());
             this.classDeclaration = classDeclaration;
             this.method = method;
-            withName(method.getName()).withPriority(method.getPriority());
+            withName(method.getName()).withPriority(method.getPriority()).withScope(method.getScope());
         }
 
         public MethodServiceDeclaration<T> build() {
@@ -2,7 +2,6 @@ package org.yah.sinject.impl.builder.declarations;
 
 import org.yah.sinject.impl.builder.ResolvedDependencies;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.Objects;
 
 public class ResolvedConstructor<T> implements Comparable<ResolvedConstructor<T>> {
@@ -13,7 +12,6 @@ public class ResolvedConstructor<T> implements Comparable<ResolvedConstructor<T>
                         ResolvedDependencies resolvedDependencies) {
         this.constructor = Objects.requireNonNull(constructor, "constructor is null");
         this.resolvedDependencies = resolvedDependencies;
-        constructor.ensureAccessible();
     }
 
     public boolean isResolved() {
@@ -24,9 +22,8 @@ public class ResolvedConstructor<T> implements Comparable<ResolvedConstructor<T>
         return resolvedDependencies.resolvedCount();
     }
 
-    public T newInstance() throws IllegalAccessException, InvocationTargetException, InstantiationException {
-        final Object[] params = resolvedDependencies.get();
-        return constructor.newInstance(params);
+    public T newInstance() throws Exception {
+        return constructor.newInstance(resolvedDependencies);
     }
 
     @Override
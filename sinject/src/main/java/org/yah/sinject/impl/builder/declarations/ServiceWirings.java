@@ -0,0 +1,163 @@
+package org.yah.sinject.impl.builder.declarations;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.annotations.Service;
+import org.yah.sinject.builder.ConstructorWiring;
+import org.yah.sinject.builder.ExecutableWiring;
+import org.yah.sinject.builder.MethodWiring;
+import org.yah.sinject.builder.ServiceWiring;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Get the constructors and annotated methods of a class, using the generated {@link ServiceWiring} if any,
+ * reflection otherwise.
+ */
+public final class ServiceWirings {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceWirings.class);
+
+    private static final ClassValue<Optional<ServiceWiring<?>>> GENERATED_WIRINGS = new ClassValue<>() {
+        @Override
+        protected Optional<ServiceWiring<?>> computeValue(Class<?> type) {
+            return loadGeneratedWiring(type);
+        }
+    };
+
+    private ServiceWirings() {
+    }
+
+    /**
+     * @return the annotated methods declared by <code>type</code>, inherited methods excluded
+     */
+    public static List<MethodWiring> methods(Class<?> type) {
+        final Optional<ServiceWiring<?>> generated = GENERATED_WIRINGS.get(type);
+        if (generated.isPresent())
+            return generated.get().methods();
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.getAnnotation(Service.class) != null)
+                .map(ServiceWirings::reflectiveMethod)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the candidate constructors of <code>type</code>: the annotated constructor if any,
+     * all declared constructors otherwise
+     */
+    public static <T> List<ConstructorWiring<T>> constructors(Class<T> type) {
+        final Optional<ServiceWiring<?>> generated = GENERATED_WIRINGS.get(type);
+        if (generated.isPresent()) {
+            //noinspection unchecked
+            return ((ServiceWiring<T>) generated.get()).constructors();
+        }
+
+        //noinspection unchecked
+        final Constructor<T>[] constructors = (Constructor<T>[]) type.getDeclaredConstructors();
+        final Constructor<T> annotated = Arrays.stream(constructors)
+                .filter(constructor -> constructor.getAnnotation(Service.class) != null)
+                .findFirst().orElse(null);
+        if (annotated != null)
+            return List.of(reflectiveConstructor(annotated));
+        return Arrays.stream(constructors)
+                .map(ServiceWirings::reflectiveConstructor)
+                .collect(Collectors.toList());
+    }
+
+    private static MethodWiring reflectiveMethod(Method method) {
+        final Service annotation = method.getAnnotation(Service.class);
+        final MethodWiring.Builder builder = MethodWiring.builder(method.getDeclaringClass(), method.getName())
+                .withName(annotatedName(annotation))
+                .withPriority(annotation.priority())
+                .withScope(annotation.scope());
+        final String condition = StringUtils.trimToNull(annotation.condition());
+        if (condition != null) {
+            final MethodWiring.Builder conditionBuilder = MethodWiring.builder(method.getDeclaringClass(), condition);
+            builder.withCondition(reflectiveMethod(conditionMethod(method, condition), conditionBuilder));
+        }
+        return reflectiveMethod(method, builder);
+    }
+
+    private static MethodWiring reflectiveMethod(Method method, MethodWiring.Builder builder) {
+        builder.withStatic(Modifier.isStatic(method.getModifiers()))
+                .withReturnType(method.getGenericReturnType());
+        addParameters(method, builder);
+        method.setAccessible(true);
+        try {
+            return builder.withInvoker(LambdaInvokers.create(method)).build();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to access " + method, e);
+        }
+    }
+
+    /**
+     * @return the <code>boolean</code> method named <code>condition</code> of the service method class
+     */
+    private static Method conditionMethod(Method method, String condition) {
+        final List<Method> candidates = Arrays.stream(method.getDeclaringClass().getDeclaredMethods())
+                .filter(m -> m.getName().equals(condition))
+                .filter(m -> m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class)
+                .collect(Collectors.toList());
+        if (candidates.size() != 1) {
+            throw new IllegalArgumentException((candidates.isEmpty() ? "No" : "More than one") +
+                    " boolean method '" + condition + "' declared for the condition of " + method);
+        }
+        return candidates.get(0);
+    }
+
+    private static <T> ConstructorWiring<T> reflectiveConstructor(Constructor<T> constructor) {
+        final ConstructorWiring.Builder<T> builder = ConstructorWiring.builder(constructor.getDeclaringClass());
+        final Service annotation = constructor.getAnnotation(Service.class);
+        if (annotation != null)
+            builder.withAnnotation(annotatedName(annotation), annotation.priority(), annotation.scope());
+        addParameters(constructor, builder);
+        if (!constructor.canAccess(null))
+            constructor.setAccessible(true);
+        try {
+            return builder.withInvoker(LambdaInvokers.create(constructor)).build();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to access " + constructor, e);
+        }
+    }
+
+    private static void addParameters(Executable executable, ExecutableWiring.AbstractBuilder<?, ?> builder) {
+        for (Parameter parameter : executable.getParameters()) {
+            builder.withParameter(parameter.getName(), parameter.getParameterizedType());
+        }
+    }
+
+    private static String annotatedName(Service annotation) {
+        String name = StringUtils.trimToNull(annotation.name());
+        if (name == null)
+            name = StringUtils.trimToNull(annotation.value());
+        return name;
+    }
+
+    private static Optional<ServiceWiring<?>> loadGeneratedWiring(Class<?> type) {
+        final String wiringClassName = ServiceWiring.wiringClassName(type);
+        final Class<?> wiringClass;
+        try {
+            wiringClass = Class.forName(wiringClassName, true, type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+        if (!ServiceWiring.class.isAssignableFrom(wiringClass)) {
+            LOGGER.warn("Ignoring {}, it does not implement {}", wiringClass, ServiceWiring.class.getName());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ServiceWiring<?>) wiringClass.getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Error creating generated wiring {}, using reflection", wiringClassName, e);
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,411 @@
+package org.yah.sinject.impl.scopes;
+
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceLease;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.PoolExhaustedException;
+import org.yah.sinject.exceptions.ServiceCloseException;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of instances per service, for expensive services that are not thread safe.<br>
+ * Instances are only reachable through {@link Service#lease()}, {@link Service#get()} throws an
+ * {@link IllegalStateException}, and a service depending on a pooled service, even optionally or through a
+ * {@link org.yah.sinject.Provider}, fails the build. A lease waits up to the borrow timeout when all the instances are leased, then
+ * fails with a {@link PoolExhaustedException}.<br>
+ * The min size instances are created on the first lease. Idle instances are reused most recently returned first,
+ * and instances idle for the max idle time are closed on the next lease or return, while keeping at
+ * least min size instances.
+ * <pre>
+ * DefaultServices.builder()
+ *      .withScope(PooledScope.builder().withMaxSize(8).build())
+ *      .declare(Codec.class).withScope(PooledScope.DEFAULT_NAME).register()
+ * </pre>
+ */
+public final class PooledScope implements ServiceScope {
+
+    public static final String DEFAULT_NAME = "pooled";
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final String name;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxIdleNanos;
+    private final Duration borrowTimeout;
+
+    private final Map<ServiceDefinition, Pool<?>> pools = new ConcurrentHashMap<>();
+
+    private PooledScope(Builder builder) {
+        this.name = Objects.requireNonNull(builder.name, "name is null");
+        if (builder.minSize < 0 || builder.maxSize < 1 || builder.minSize > builder.maxSize)
+            throw new IllegalArgumentException("invalid pool size [" + builder.minSize + ", " + builder.maxSize + "]");
+        this.minSize = builder.minSize;
+        this.maxSize = builder.maxSize;
+        this.maxIdleNanos = Objects.requireNonNull(builder.maxIdle, "maxIdle is null").toNanos();
+        this.borrowTimeout = Objects.requireNonNull(builder.borrowTimeout, "borrowTimeout is null");
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory) {
+        final Pool<T> pool = new Pool<>(service, factory);
+        pools.put(service, pool);
+        return pool;
+    }
+
+    /**
+     * @return the current metrics of the pool of a service of this scope, empty if not in this scope or closed
+     */
+    public Optional<Metrics> metrics(ServiceDefinition service) {
+        return Optional.ofNullable(pools.get(service)).map(Pool::metrics);
+    }
+
+    private final class Pool<T> implements ScopedInstance<T> {
+        private final ServiceDefinition service;
+        private final Supplier<? extends T> factory;
+
+        // one permit per instance that can be leased
+        private final Semaphore available = new Semaphore(maxSize);
+        // most recently returned first
+        private final Deque<Idle<T>> idles = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean warmedUp = new AtomicBoolean();
+
+        private final LongAdder created = new LongAdder();
+        private final LongAdder evicted = new LongAdder();
+        private final LongAdder leases = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private Pool(ServiceDefinition service, Supplier<? extends T> factory) {
+            this.service = service;
+            this.factory = Objects.requireNonNull(factory, "factory is null");
+        }
+
+        @Override
+        public T get() {
+            throw new IllegalStateException("Service " + service + " is pooled, use Service.lease()");
+        }
+
+        @Override
+        public ServiceLease<T> lease() {
+            checkOpen();
+            acquire();
+            final T instance;
+            try {
+                instance = borrow();
+            } catch (RuntimeException | Error e) {
+                available.release();
+                throw e;
+            }
+            leases.increment();
+            return new Lease(instance);
+        }
+
+        private void acquire() {
+            if (available.tryAcquire())
+                return;
+            try {
+                if (available.tryAcquire(borrowTimeout.toNanos(), TimeUnit.NANOSECONDS))
+                    return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while leasing " + service, e);
+            }
+            timeouts.increment();
+            throw new PoolExhaustedException(service, maxSize, borrowTimeout);
+        }
+
+        private T borrow() {
+            if (!warmedUp.get() && warmedUp.compareAndSet(false, true))
+                warmUp();
+            evictIdles();
+            final Idle<T> idle = idles.pollFirst();
+            if (idle != null)
+                return idle.instance;
+            return create();
+        }
+
+        private T create() {
+            size.incrementAndGet();
+            final T instance;
+            try {
+                instance = factory.get();
+            } catch (RuntimeException | Error e) {
+                size.decrementAndGet();
+                throw e;
+            }
+            created.increment();
+            return instance;
+        }
+
+        /**
+         * Create the min size instances on first lease.
+         */
+        private void warmUp() {
+            final long now = System.nanoTime();
+            for (int i = 0; i < minSize; i++) {
+                idles.offerLast(new Idle<>(create(), now));
+            }
+        }
+
+        private void giveBack(T instance) {
+            if (closed.get()) {
+                destroy(instance);
+            } else {
+                idles.offerFirst(new Idle<>(instance, System.nanoTime()));
+                // close may have drained the idles concurrently
+                if (closed.get())
+                    Scopes.log(drain());
+                else
+                    evictIdles();
+            }
+            available.release();
+        }
+
+        /**
+         * Close the least recently returned instances idle for too long, keeping at least min size instances.
+         */
+        private void evictIdles() {
+            final long now = System.nanoTime();
+            Idle<T> oldest;
+            while ((oldest = idles.peekLast()) != null && now - oldest.returnedAt >= maxIdleNanos) {
+                final int current = size.get();
+                if (current <= minSize || !size.compareAndSet(current, current - 1))
+                    return;
+                if (idles.removeLastOccurrence(oldest)) {
+                    evicted.increment();
+                    Scopes.closeQuietly(service, oldest.instance);
+                } else {
+                    // leased concurrently
+                    size.incrementAndGet();
+                }
+            }
+        }
+
+        private void destroy(T instance) {
+            size.decrementAndGet();
+            Scopes.closeQuietly(service, instance);
+        }
+
+        /**
+         * @return the close errors of the idle instances, null if none
+         */
+        private ServiceCloseException drain() {
+            ServiceCloseException error = null;
+            Idle<T> idle;
+            while ((idle = idles.pollFirst()) != null) {
+                size.decrementAndGet();
+                error = Scopes.close(service, idle.instance, error);
+            }
+            return error;
+        }
+
+        private void checkOpen() {
+            if (closed.get())
+                throw new IllegalStateException("Service " + service + " is closed");
+        }
+
+        @Override
+        public Optional<T> peek() {
+            // pooled instances are never shared
+            return Optional.empty();
+        }
+
+        /**
+         * Close the idle instances, leased instances are closed when returned.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                pools.remove(service, this);
+                final ServiceCloseException error = drain();
+                if (error != null)
+                    throw error;
+            }
+        }
+
+        private Metrics metrics() {
+            final int idle = idles.size();
+            final int currentSize = size.get();
+            return new Metrics(currentSize, idle, maxSize - available.availablePermits(),
+                    created.sum(), evicted.sum(), leases.sum(), timeouts.sum());
+        }
+
+        private final class Lease implements ServiceLease<T> {
+            private final AtomicBoolean returned = new AtomicBoolean();
+            private final T instance;
+
+            private Lease(T instance) {
+                this.instance = instance;
+            }
+
+            @Override
+            public T get() {
+                if (returned.get())
+                    throw new IllegalStateException("lease of " + service + " is closed");
+                return instance;
+            }
+
+            @Override
+            public void close() {
+                if (returned.compareAndSet(false, true))
+                    giveBack(instance);
+            }
+        }
+    }
+
+    private static final class Idle<T> {
+        private final T instance;
+        private final long returnedAt;
+
+        private Idle(T instance, long returnedAt) {
+            this.instance = instance;
+            this.returnedAt = returnedAt;
+        }
+    }
+
+    /**
+     * Snapshot of a service pool state and counters.
+     */
+    public static final class Metrics {
+        private final int size;
+        private final int idle;
+        private final int leased;
+        private final long created;
+        private final long evicted;
+        private final long leases;
+        private final long timeouts;
+
+        private Metrics(int size, int idle, int leased, long created, long evicted, long leases, long timeouts) {
+            this.size = size;
+            this.idle = idle;
+            this.leased = leased;
+            this.created = created;
+            this.evicted = evicted;
+            this.leases = leases;
+            this.timeouts = timeouts;
+        }
+
+        /**
+         * @return number of live instances, idle or leased
+         */
+        public int size() {
+            return size;
+        }
+
+        public int idle() {
+            return idle;
+        }
+
+        public int leased() {
+            return leased;
+        }
+
+        /**
+         * @return total number of created instances
+         */
+        public long created() {
+            return created;
+        }
+
+        /**
+         * @return total number of instances closed after being idle for too long
+         */
+        public long evicted() {
+            return evicted;
+        }
+
+        /**
+         * @return total number of leases
+         */
+        public long leases() {
+            return leases;
+        }
+
+        /**
+         * @return total number of leases that timed out
+         */
+        public long timeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "size=" + size +
+                    ", idle=" + idle +
+                    ", leased=" + leased +
+                    ", created=" + created +
+                    ", evicted=" + evicted +
+                    ", leases=" + leases +
+                    ", timeouts=" + timeouts +
+                    '}';
+        }
+    }
+
+    public static final class Builder {
+        private String name = DEFAULT_NAME;
+        private int minSize;
+        private int maxSize = Runtime.getRuntime().availableProcessors();
+        private Duration maxIdle = Duration.ofMinutes(1);
+        private Duration borrowTimeout = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * @param minSize number of instances kept when evicting idle instances
+         */
+        public Builder withMinSize(int minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        public Builder withMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Builder withMaxIdle(Duration maxIdle) {
+            this.maxIdle = maxIdle;
+            return this;
+        }
+
+        public Builder withBorrowTimeout(Duration borrowTimeout) {
+            this.borrowTimeout = borrowTimeout;
+            return this;
+        }
+
+        public PooledScope build() {
+            return new PooledScope(this);
+        }
+    }
+}
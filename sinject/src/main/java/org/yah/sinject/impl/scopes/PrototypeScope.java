@@ -0,0 +1,48 @@
+package org.yah.sinject.impl.scopes;
+
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceScope;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A new instance on each {@link ScopedInstance#get()}.<br>
+ * Instances are not retained: {@link ScopedInstance#peek()} is always empty, and closing the instances is the
+ * responsibility of the caller.
+ */
+public final class PrototypeScope implements ServiceScope {
+
+    public static final PrototypeScope INSTANCE = new PrototypeScope();
+
+    private PrototypeScope() {
+    }
+
+    @Override
+    public String name() {
+        return PROTOTYPE;
+    }
+
+    @Override
+    public <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory) {
+        Objects.requireNonNull(factory, "factory is null");
+        return new ScopedInstance<>() {
+            @Override
+            public T get() {
+                return factory.get();
+            }
+
+            @Override
+            public Optional<T> peek() {
+                return Optional.empty();
+            }
+
+            @Override
+            public void close() {
+                // instances are owned by the caller
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package org.yah.sinject.impl.scopes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.ServiceCloseException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class Scopes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Scopes.class);
+
+    /**
+     * @return the built-in scopes by name
+     */
+    public static Map<String, ServiceScope> builtins() {
+        final Map<String, ServiceScope> scopes = new LinkedHashMap<>();
+        scopes.put(SingletonScope.INSTANCE.name(), SingletonScope.INSTANCE);
+        scopes.put(PrototypeScope.INSTANCE.name(), PrototypeScope.INSTANCE);
+        scopes.put(ThreadScope.INSTANCE.name(), ThreadScope.INSTANCE);
+        return scopes;
+    }
+
+    /**
+     * Close an instance if it is {@link AutoCloseable}
+     *
+     * @param error the error of the previous instances closed by the caller, null if none
+     * @return the close error, or <code>error</code> with this close error suppressed
+     */
+    static ServiceCloseException close(ServiceDefinition service, Object instance, ServiceCloseException error) {
+        if (instance instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance).close();
+            } catch (Exception e) {
+                if (error == null)
+                    return new ServiceCloseException(service, e);
+                error.addSuppressed(e);
+            }
+        }
+        return error;
+    }
+
+    static void close(ServiceDefinition service, Object instance) throws ServiceCloseException {
+        final ServiceCloseException error = close(service, instance, null);
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Close an instance outside of its service close, logging any error.
+     */
+    static void closeQuietly(ServiceDefinition service, Object instance) {
+        log(close(service, instance, null));
+    }
+
+    static void log(ServiceCloseException error) {
+        if (error != null)
+            LOGGER.error(error.getMessage(), error.getCause());
+    }
+
+    private Scopes() {
+    }
+}
@@ -0,0 +1,83 @@
+package org.yah.sinject.impl.scopes;
+
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceScope;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * One instance, created on first {@link ScopedInstance#get()} and closed with the service.
+ */
+public final class SingletonScope implements ServiceScope {
+
+    public static final SingletonScope INSTANCE = new SingletonScope();
+
+    private SingletonScope() {
+    }
+
+    @Override
+    public String name() {
+        return SINGLETON;
+    }
+
+    @Override
+    public <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory) {
+        return new Singleton<>(service, factory);
+    }
+
+    private static final class Singleton<T> implements ScopedInstance<T> {
+        private final ServiceDefinition service;
+        private final Supplier<? extends T> factory;
+
+        /**
+         * safely published once created, read without locking
+         */
+        private volatile T instance;
+
+        /**
+         * not a monitor, a virtual thread blocking in the factory would pin its carrier thread before Java 24
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Singleton(ServiceDefinition service, Supplier<? extends T> factory) {
+            this.service = service;
+            this.factory = Objects.requireNonNull(factory, "factory is null");
+        }
+
+        @Override
+        public T get() {
+            T current = instance;
+            if (current == null)
+                current = create();
+            return current;
+        }
+
+        private T create() {
+            lock.lock();
+            try {
+                T current = instance;
+                if (current == null) {
+                    current = factory.get();
+                    instance = current;
+                }
+                return current;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Optional<T> peek() {
+            return Optional.ofNullable(instance);
+        }
+
+        @Override
+        public void close() {
+            Scopes.close(service, instance);
+        }
+    }
+}
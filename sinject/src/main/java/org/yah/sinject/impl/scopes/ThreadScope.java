@@ -0,0 +1,118 @@
+package org.yah.sinject.impl.scopes;
+
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.exceptions.ServiceCloseException;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * One instance per thread, created on the first {@link ScopedInstance#get()} of each thread.<br>
+ * {@link ScopedInstance#peek()} returns the instance of the calling thread, and closing the service closes the
+ * instances of all threads. Instances of terminated threads are closed when the next instance is created.<br>
+ * {@link ScopedInstance#get()} throws {@link IllegalStateException} once the service is closed.
+ */
+public final class ThreadScope implements ServiceScope {
+
+    public static final ThreadScope INSTANCE = new ThreadScope();
+
+    private ThreadScope() {
+    }
+
+    @Override
+    public String name() {
+        return THREAD;
+    }
+
+    @Override
+    public <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory) {
+        return new PerThread<>(service, factory);
+    }
+
+    private static final class PerThread<T> implements ScopedInstance<T> {
+        private final ServiceDefinition service;
+        private final Supplier<? extends T> factory;
+        private final ThreadLocal<T> instances = new ThreadLocal<>();
+        // instances of live threads, to close them from any thread
+        private final Queue<Created<T>> created = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        private PerThread(ServiceDefinition service, Supplier<? extends T> factory) {
+            this.service = service;
+            this.factory = Objects.requireNonNull(factory, "factory is null");
+        }
+
+        @Override
+        public T get() {
+            T instance = instances.get();
+            if (closed) {
+                if (instance != null)
+                    instances.remove();
+                throw new IllegalStateException("Service " + service + " is closed");
+            }
+            if (instance == null) {
+                expunge();
+                instance = factory.get();
+                instances.set(instance);
+                created.add(new Created<>(Thread.currentThread(), instance));
+                // closed while creating, the instance could have been missed by close
+                if (closed) {
+                    close();
+                    throw new IllegalStateException("Service " + service + " is closed");
+                }
+            }
+            return instance;
+        }
+
+        @Override
+        public Optional<T> peek() {
+            if (closed) {
+                instances.remove();
+                return Optional.empty();
+            }
+            return Optional.ofNullable(instances.get());
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            instances.remove();
+            ServiceCloseException error = null;
+            Created<T> entry;
+            while ((entry = created.poll()) != null) {
+                error = Scopes.close(service, entry.instance, error);
+            }
+            if (error != null)
+                throw error;
+        }
+
+        /**
+         * Close the instances of terminated threads, they can not be used anymore.
+         */
+        private void expunge() {
+            created.removeIf(entry -> {
+                final Thread thread = entry.thread.get();
+                if (thread != null && thread.isAlive())
+                    return false;
+                Scopes.closeQuietly(service, entry.instance);
+                return true;
+            });
+        }
+    }
+
+    private static final class Created<T> {
+        private final WeakReference<Thread> thread;
+        private final T instance;
+
+        private Created(Thread thread, T instance) {
+            this.thread = new WeakReference<>(thread);
+            this.instance = instance;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.yah.sinject.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for the service instantiations that block, on I/O for instance.<br>
+ * Java 21 release: each instantiation runs on its own virtual thread, so blocking factories do not hold platform
+ * threads.
+ */
+final class BlockingExecutors {
+
+    private BlockingExecutors() {
+    }
+
+    static Executor instantiationExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("sinject-instantiation-", 0).factory());
+    }
+}
@@ -0,0 +1,87 @@
+package org.yah.sinject.impl;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class AssignabilityCacheTest {
+
+    @SuppressWarnings("unused")
+    private static class Fields<T> {
+        Supplier<String> stringSupplier;
+        List<? extends Number> numbers;
+        List<? super Integer> integersSink;
+        T variable;
+    }
+
+    @Test
+    public void parameterized_types() throws Exception {
+        final Type stringSupplier = Fields.class.getDeclaredField("stringSupplier").getGenericType();
+        final Type parameterized = TypeUtils.parameterize(Supplier.class, String.class);
+        assertThat(AssignabilityCache.hash(stringSupplier), is(AssignabilityCache.hash(parameterized)));
+
+        final AssignabilityCache.Statistics before = AssignabilityCache.statistics();
+        assertThat(AssignabilityCache.isAssignable(stringSupplier, Supplier.class), is(true));
+        // same key, from another ParameterizedType implementation
+        assertThat(AssignabilityCache.isAssignable(parameterized, Supplier.class), is(true));
+        assertThat(AssignabilityCache.isAssignable(stringSupplier,
+                TypeUtils.parameterize(Supplier.class, Integer.class)), is(false));
+        final AssignabilityCache.Statistics after = AssignabilityCache.statistics();
+        assertThat(after.hitCount() - before.hitCount() >= 1, is(true));
+        assertThat(after.missCount() - before.missCount() <= 2, is(true));
+    }
+
+    @Test
+    public void wildcard_types() throws Exception {
+        final Type numbers = Fields.class.getDeclaredField("numbers").getGenericType();
+        final Type integersSink = Fields.class.getDeclaredField("integersSink").getGenericType();
+        final Type integers = TypeUtils.parameterize(List.class, Integer.class);
+        final Type wildcardNumbers = TypeUtils.parameterize(List.class,
+                TypeUtils.wildcardType().withUpperBounds(Number.class).build());
+        assertThat(AssignabilityCache.hash(numbers), is(AssignabilityCache.hash(wildcardNumbers)));
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(AssignabilityCache.isAssignable(integers, numbers), is(true));
+            assertThat(AssignabilityCache.isAssignable(integers, wildcardNumbers), is(true));
+            assertThat(AssignabilityCache.isAssignable(integers, integersSink), is(true));
+            assertThat(AssignabilityCache.isAssignable(numbers, integers), is(false));
+            assertThat(AssignabilityCache.isAssignable(numbers, Collection.class), is(true));
+        }
+    }
+
+    @Test
+    public void type_variables_are_not_cached() throws Exception {
+        final Type variable = Fields.class.getDeclaredField("variable").getGenericType();
+        final long uncached = AssignabilityCache.statistics().uncachedCount();
+        assertThat(AssignabilityCache.isAssignable(variable, Object.class), is(true));
+        assertThat(AssignabilityCache.statistics().uncachedCount(), is(uncached + 1));
+    }
+
+    @Test
+    public void classes() {
+        assertThat(AssignabilityCache.isAssignable(Integer.class, Number.class), is(true));
+        assertThat(AssignabilityCache.isAssignable(Number.class, Integer.class), is(false));
+        assertThat(AssignabilityCache.isAssignable(int.class, Integer.class),
+                is(TypeUtils.isAssignable(int.class, Integer.class)));
+    }
+
+    @Test
+    public void anchors() throws Exception {
+        final Type stringSupplier = Fields.class.getDeclaredField("stringSupplier").getGenericType();
+        final Type numbers = Fields.class.getDeclaredField("numbers").getGenericType();
+        final Type collection = TypeUtils.parameterize(Collection.class, TypeUtils.wildcardType().build());
+        // bootstrap only queries are anchored on their target class, not on a shared one
+        assertThat(AssignabilityCache.anchor(numbers, collection), is((Object) Collection.class));
+        assertThat(AssignabilityCache.anchor(stringSupplier, Supplier.class), is((Object) Supplier.class));
+        assertThat(AssignabilityCache.anchor(stringSupplier, TypeUtils.parameterize(Supplier.class, Fields.class)),
+                is((Object) Fields.class));
+    }
+
+}
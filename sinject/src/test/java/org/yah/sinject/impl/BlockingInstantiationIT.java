@@ -0,0 +1,38 @@
+package org.yah.sinject.impl;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.yah.sinject.Services;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Run on the packaged multi-release jar by the <code>java21</code> profile.
+ */
+public class BlockingInstantiationIT {
+
+    public static class BlockingService {
+    }
+
+    @Test
+    public void virtual_threads() throws Exception {
+        Assume.assumeTrue(Runtime.version().feature() >= 21);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final Services services = DefaultServices.builder()
+                .withBlockingInstantiation()
+                .declare(BlockingService.class).withInstanceFactory(d -> {
+                    thread.set(Thread.currentThread());
+                    return new BlockingService();
+                }).register()
+                .build();
+        services.close();
+
+        final Method isVirtual = Thread.class.getMethod("isVirtual");
+        assertThat(isVirtual.invoke(thread.get()), is(true));
+    }
+
+}
@@ -10,12 +10,20 @@ import org.yah.sinject.impl.DefaultServices;
 import org.yah.sinject.builder.InstanceSupplier;
 import org.yah.sinject.builder.ServiceDeclaration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -68,6 +76,29 @@ public class DefaultServiceTest {
         assertThat(service.peek(), is(Optional.of(serviceInstance)));
     }
 
+    @Test
+    public void concurrent_get() throws Exception {
+        final int threads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<TestService>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.get();
+                }));
+            }
+            start.countDown();
+            for (Future<TestService> future : futures) {
+                assertThat(future.get(), sameInstance(serviceInstance));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(instanceSupplier, times(1)).get();
+    }
+
     private static class TestService {
     }
 }
\ No newline at end of file
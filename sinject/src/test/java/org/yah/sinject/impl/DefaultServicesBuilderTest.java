@@ -0,0 +1,1086 @@
+package org.yah.sinject.impl;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.yah.sinject.Parametric;
+import org.yah.sinject.Provider;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.Services;
+import org.yah.sinject.TypedServices;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ScopedInstance;
+import org.yah.sinject.builder.ServiceDeclarationTransformer;
+import org.yah.sinject.builder.ServiceInstanceTransformer;
+import org.yah.sinject.builder.ServiceScope;
+import org.yah.sinject.builder.ServiceWiring;
+import org.yah.sinject.exceptions.CircularDependencyException;
+import org.yah.sinject.exceptions.NoSuchServiceException;
+import org.yah.sinject.exceptions.ServiceCloseException;
+import org.yah.sinject.exceptions.ServiceCreationException;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+import org.yah.sinject.impl.configurations.CircularDependency;
+import org.yah.sinject.impl.configurations.ServicesConfiguration;
+import org.yah.sinject.impl.configurations.WiredConfiguration;
+import org.yah.sinject.impl.configurations.ServicesConfiguration.*;
+import org.yah.sinject.impl.scopes.PrototypeScope;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.yah.sinject.impl.DefaultServices.builder;
+
+@SuppressWarnings("SameParameterValue")
+public class DefaultServicesBuilderTest {
+
+    private Services parent;
+    private Services services;
+
+    @Before
+    public void setUp() {
+        parent = builder()
+                .declare(String.class).withName("theString").withInstance("the string value").register()
+                .declare(InstanceTransformer.class).withName("parentInstanceTransformer").withInstance(new InstanceTransformer()).register()
+                .declare(DeclarationTransformer.class).withName("parentInvocationTransformer").withInstance(new DeclarationTransformer()).register()
+                .build();
+        services = builder()
+                .withParent(parent)
+                .withName("theServices")
+                .declare(ServicesConfiguration.class).withName("theConfiguration").register()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        if (services != null)
+            services.close();
+    }
+
+    @Test
+    public void test_services_presence() {
+        final List<Services> matched = this.services.services(Services.class).stream()
+                                                    .map(Service::get)
+                                                    .collect(Collectors.toList());
+        assertThat(matched, Matchers.containsInAnyOrder(parent, services));
+    }
+
+    @Test
+    public void test_services_not_closable() {
+        final List<Services> matched = this.services.services(Services.class).stream()
+                                                    .map(Service::get)
+                                                    .collect(Collectors.toList());
+        matched.forEach(Services::close);
+        ServiceD serviceD = this.services.service(ServiceD.class).get();
+        assertThat(serviceD.closed, is(false));
+    }
+
+    @Test
+    public void test_exposed_services_try_resolution() {
+        final Services exposed = this.services.get("theServices", Services.class);
+        final ServiceResolution missing = exposed.tryService(null, Long.class);
+        assertThat(missing.isResolved(), is(false));
+        // resolved without exception, and memoized by the delegate
+        assertThat(exposed.tryService(null, Long.class), sameInstance(missing));
+    }
+
+    @Test
+    public void test_closable() {
+        final ServiceD serviceD = this.services.service(ServiceD.class).get();
+        assertThat(serviceD.closed, is(false));
+        services.close();
+        assertThat(serviceD.closed, is(true));
+    }
+
+    @Test
+    public void test_injection() {
+        services.get("theConfiguration", ServicesConfiguration.class);
+
+        final Service<String> theStringService = services.service("theString", String.class);
+        assertThat(theStringService, match("theString", String.class));
+        String theString = theStringService.get();
+        assertThat(theString, is("the string value"));
+
+        assertThat(services.service("serviceA", ServicesConfiguration.ServiceA.class),
+                   match("serviceA", ServicesConfiguration.ServiceA.class, Integer.MIN_VALUE));
+        services.get("serviceA", ServicesConfiguration.ServiceA.class);
+
+        assertThat(services
+                           .service(ServicesConfiguration.ServiceB.class), match("serviceB", ServicesConfiguration.ServiceB.class));
+        ServicesConfiguration.ServiceB serviceB = services.get(ServicesConfiguration.ServiceB.class);
+        assertThat(serviceB.theString, sameInstance(theString));
+
+        assertThat(services.service(ServiceC.class), match("serviceC", ServiceC.class));
+        ServiceC serviceC = services.get(ServiceC.class);
+        assertThat(serviceC.serviceB, sameInstance(serviceB));
+
+        assertThat(services
+                           .service(ServiceD.class), match("serviceD", ServiceD.class));
+        ServiceD serviceD = services.get(ServiceD.class);
+        assertThat(serviceD.serviceC, sameInstance(serviceC));
+
+        assertThat(services
+                           .service(ServicesConfiguration.ServiceE.class), match("serviceE", ServicesConfiguration.ServiceE.class));
+        ServicesConfiguration.ServiceE serviceE = services.get(ServicesConfiguration.ServiceE.class);
+        assertThat(serviceE.serviceC, sameInstance(serviceC));
+        assertThat(serviceE.serviceD, sameInstance(serviceD));
+
+    }
+
+    @Test
+    public void test_injected_class() {
+        ServicesConfiguration.ServiceA serviceA = services.get("serviceA", ServicesConfiguration.ServiceA.class);
+        ServicesConfiguration.ServiceE serviceE = services.get(ServicesConfiguration.ServiceE.class);
+
+        assertThat(services
+                           .service(ServicesConfiguration.ServiceF.class), match("serviceF", ServicesConfiguration.ServiceF.class));
+        ServicesConfiguration.ServiceF serviceF = services.get(ServicesConfiguration.ServiceF.class);
+        assertThat(serviceF.getServiceA(), sameInstance(serviceA));
+        assertThat(serviceF.getServiceE(), sameInstance(serviceE));
+    }
+
+    @Test
+    public void test_optional_classes() {
+        assertThat(services
+                           .service("presentServiceA", ServicesConfiguration.ServiceA.class), match("presentServiceA", ServicesConfiguration.ServiceA.class));
+        try {
+            services.service("emptyServiceA", ServicesConfiguration.ServiceA.class);
+            fail("empty service found");
+        } catch (NoSuchServiceException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_optional_instances() {
+        assertThat(services
+                           .service("presentInstance", ServicesConfiguration.ServiceB.class), match("presentInstance", ServicesConfiguration.ServiceB.class, 1));
+        try {
+            services.service("emptyInstance", ServicesConfiguration.ServiceB.class);
+            fail("empty service found");
+        } catch (NoSuchServiceException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_nested_configuration() {
+        services.get(NestedConfiguration.class);
+        services.get("nestedServiceC", ServiceC.class);
+    }
+
+    @Test
+    public void test_static_string() {
+        final String staticString = services.get("staticString", String.class);
+        assertThat(staticString, is("static"));
+    }
+
+    @Test
+    public void test_ambiguity() {
+        assertThat(services.service("serviceA", ServicesConfiguration.ServiceA.class),
+                   match("serviceA", ServicesConfiguration.ServiceA.class, Integer.MIN_VALUE));
+        ServicesConfiguration.ServiceA primaryServiceA = services.get("serviceA", ServicesConfiguration.ServiceA.class);
+
+        assertThat(services.service("secondaryServiceA", ServicesConfiguration.ServiceA.class),
+                   match("secondaryServiceA", ServicesConfiguration.ServiceA.class));
+        ServicesConfiguration.ServiceA secondaryServiceA = services
+                .get("secondaryServiceA", ServicesConfiguration.ServiceA.class);
+        assertThat(secondaryServiceA, not(primaryServiceA));
+
+        assertThat(services.service(ServicesConfiguration.ServiceA.class).get(), sameInstance(primaryServiceA));
+    }
+
+    @Test
+    public void test_optional_dependency() {
+        final ServiceC serviceC = services.service(ServiceC.class).get();
+        assertThat(serviceC.stringSupplier, is(services.get("stringSupplier", Supplier.class)));
+        assertThat(serviceC.doubleSupplier, nullValue());
+    }
+
+    @Test
+    public void test_generic() {
+        final TypedServices<Supplier<?>> suppliers = services.services(Supplier.class);
+        assertThat(suppliers, Matchers.containsInAnyOrder(List.of(
+                match("stringSupplier", Supplier.class),
+                match("intSupplier", Supplier.class)
+        )));
+
+        final TypedServices<Supplier<String>> stringSuppliers = this.services.services(new Parametric<>() {
+        });
+        assertThat(stringSuppliers, Matchers.contains(match("stringSupplier", Supplier.class)));
+    }
+
+    @Test
+    public void test_circular_dependency() {
+        try {
+            builder()
+                    .declare(CircularDependency.class).register()
+                    .build();
+            fail("no error ?");
+        } catch (ServiceCreationException e) {
+            assertThat(e, isCausedBy(CircularDependencyException.class));
+            // all good
+        }
+    }
+
+    @Test
+    public void test_declaration_tranformers() {
+        final Service<DeclarationTransformer> parentInvocationTransformer = services.service(
+                "parentInvocationTransformer", DeclarationTransformer.class);
+        List<ServiceDeclaration<?>> actuals = parentInvocationTransformer.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == parentInvocationTransformer));
+
+        final Service<DeclarationTransformer> declarationTransformer1 = services.service(
+                "declarationTransformer1", DeclarationTransformer.class);
+        actuals = declarationTransformer1.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == declarationTransformer1 ||
+                s.getSource().equals(parent) ||
+                s.isAssignableTo(ServicesConfiguration.class)));
+
+        final Service<DeclarationTransformer> declarationTransformer2 = services.service(
+                "declarationTransformer2", DeclarationTransformer.class);
+        actuals = declarationTransformer2.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == declarationTransformer2 ||
+                s == declarationTransformer1 ||
+                s.getSource().equals(parent) ||
+                s.isAssignableTo(ServicesConfiguration.class)));
+    }
+
+    @Test
+    public void test_instance_tranformers() {
+        Service<InstanceTransformer> parentInstanceTransformer =
+                services.service("parentInstanceTransformer",
+                                 InstanceTransformer.class);
+
+        // create all service instances
+        services.forEach(Service::get);
+
+        List<ServiceDeclaration<?>> actuals = parentInstanceTransformer.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == parentInstanceTransformer ||
+                s.match("parentInvocationTransformer", DeclarationTransformer.class)
+        ));
+
+        Service<InstanceTransformer> instanceTransformer1 = services.service("instanceTransformer1",
+                                                                             InstanceTransformer.class);
+        actuals = instanceTransformer1.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == instanceTransformer1 ||
+                s.getSource().equals(parent) ||
+                s.match("theConfiguration", ServicesConfiguration.class) ||
+                s.isAssignableTo(ServiceDeclarationTransformer.class)
+        ));
+
+        Service<InstanceTransformer> instanceTransformer2 = services.service("instanceTransformer2",
+                                                                             InstanceTransformer.class);
+        actuals = instanceTransformer2.get().getTransformeds();
+        assertThat(actuals, containsAllExcept(s -> s == instanceTransformer2 ||
+                s == instanceTransformer1 ||
+                s.getSource().equals(parent) ||
+                s.match("theConfiguration", ServicesConfiguration.class) ||
+                s.isAssignableTo(ServiceDeclarationTransformer.class)
+        ));
+    }
+
+    @Test
+    public void test_eager_instantiation() {
+        services.close();
+        services = builder()
+                .withParent(parent)
+                .withEagerInstantiation()
+                .declare(ServicesConfiguration.class).withName("theConfiguration").register()
+                .build();
+        final List<Service<?>> created = services.stream()
+                .filter(s -> s.getSource() == services)
+                .collect(Collectors.toList());
+        assertThat(created, not(empty()));
+        created.forEach(s -> assertThat(s + " not created", s.peek().isPresent(), is(true)));
+
+        final ServiceE serviceE = services.get(ServiceE.class);
+        assertThat(serviceE.serviceC, sameInstance(services.get(ServiceC.class)));
+        assertThat(serviceE.serviceD, sameInstance(services.get(ServiceD.class)));
+    }
+
+    @Test
+    public void test_blocking_instantiation() {
+        SlowService.instances.set(0);
+        final Services blocking = builder()
+                .withBlockingInstantiation()
+                .declare(HeavyService.class).register()
+                .declare(SlowService.class).register()
+                .build();
+        assertThat(blocking.service(SlowService.class).peek().isPresent(), is(true));
+        assertThat(blocking.get(SlowService.class).thread, startsWith("sinject-instantiation"));
+        assertThat(SlowService.instances.get(), is(1));
+    }
+
+    @Test
+    public void test_startup_report() {
+        final DefaultServices started = builder()
+                .withEagerInstantiation()
+                .declare(SlowService.class).register()
+                .declare(HeavyService.class).register()
+                .declare(ServiceB.class).withInstanceFactory(d -> new ServiceB("b")).register()
+                .build();
+        final StartupReport report = started.startupReport();
+        assertThat(report.nodes(), hasSize(4));
+        final List<Type> criticalTypes = report.criticalPath().stream()
+                .map(n -> n.service().type())
+                .collect(Collectors.toList());
+        assertThat(criticalTypes, contains(HeavyService.class, SlowService.class));
+        final StartupReport.Node slowNode = report.criticalPath().get(1);
+        assertThat(slowNode.instantiationTime(), greaterThanOrEqualTo(Duration.ofMillis(50)));
+        assertThat(slowNode.dependencies(), contains(report.criticalPath().get(0)));
+        assertThat(report.criticalPathDuration(), greaterThanOrEqualTo(slowNode.instantiationTime()));
+
+        final String json = report.toJson();
+        assertThat(json, startsWith("{\"criticalPathNanos\":"));
+        assertThat(json, containsString("\"type\":\"" + SlowService.class.getName() + "\""));
+        final String dot = report.toDot();
+        assertThat(dot, startsWith("digraph services {"));
+        assertThat(dot, containsString(" -> "));
+    }
+
+    @Test
+    public void test_eager_instantiation_error() {
+        try {
+            builder()
+                    .withEagerInstantiation()
+                    .declare(ServiceB.class).withInstanceFactory(dependencies -> {
+                        throw new IllegalStateException("expected error");
+                    }).register()
+                    .build();
+            fail("no error ?");
+        } catch (ServiceCreationException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void test_generated_wiring() throws ClassNotFoundException {
+        // generated by sinject-processor during tests compilation
+        Class.forName(ServiceWiring.wiringClassName(WiredConfiguration.class));
+        Class.forName(ServiceWiring.wiringClassName(WiredConfiguration.WiredService.class));
+
+        final Services wired = builder().declare(WiredConfiguration.class).register().build();
+        final Supplier<?> wiredString = wired.get("wiredString", Supplier.class);
+        assertThat(wiredString.get(), is("wired"));
+
+        final Service<WiredConfiguration.WiredService> wiredService = wired.service(WiredConfiguration.WiredService.class);
+        assertThat(wiredService, match("wiredClass", WiredConfiguration.WiredService.class));
+        assertThat(wiredService.get().suppliers, contains(sameInstance(wiredString)));
+        try {
+            wired.service("emptyWiredService", WiredConfiguration.WiredService.class);
+            fail("empty service found");
+        } catch (NoSuchServiceException e) {
+            // expected
+        }
+        assertThat(wired.get(StringBuilder.class), not(sameInstance(wired.get(StringBuilder.class))));
+    }
+
+    @Test
+    public void test_generated_wiring_allocation() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        final Services wired = builder().declare(WiredConfiguration.class).register().build();
+        final Service<WiredConfiguration.WiredWidget> widgets = wired.service(WiredConfiguration.WiredWidget.class);
+        final long threadId = Thread.currentThread().getId();
+        final int creations = 100_000;
+        WiredConfiguration.WiredWidget widget = null;
+        for (int i = 0; i < creations; i++) {
+            widget = widgets.get();
+        }
+        final long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < creations; i++) {
+            widget = widgets.get();
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - start;
+        assertThat(widget.wiredService, sameInstance(wired.get(WiredConfiguration.WiredService.class)));
+        // the widget itself, the configuration and dependency arguments array would double it
+        assertThat((double) allocated / creations, lessThan(32.0));
+    }
+
+    @Test
+    public void test_scopes() throws Exception {
+        final List<ScopedInstance<?>> customInstances = new ArrayList<>();
+        final ServiceScope customScope = new ServiceScope() {
+            @Override
+            public String name() {
+                return "custom";
+            }
+
+            @Override
+            public <T> ScopedInstance<T> create(ServiceDefinition service, Supplier<? extends T> factory) {
+                final ScopedInstance<T> instance = PrototypeScope.INSTANCE.create(service, factory);
+                customInstances.add(instance);
+                return instance;
+            }
+        };
+        final Services scoped = builder()
+                .withScope(customScope)
+                .withEagerInstantiation()
+                .declare(ServiceB.class).withName("prototype").withScope(ServiceScope.PROTOTYPE)
+                .withInstanceFactory(d -> new ServiceB("b")).register()
+                .declare(ServiceD.class).withName("thread").withScope(ServiceScope.THREAD)
+                .withInstanceFactory(d -> new ServiceD(null)).register()
+                .declare(StringBuilder.class).withScope("custom").withInstanceFactory(d -> new StringBuilder()).register()
+                .build();
+
+        final Service<ServiceB> prototype = scoped.service("prototype", ServiceB.class);
+        assertThat(prototype.peek().isPresent(), is(false));
+        assertThat(prototype.get(), not(sameInstance(prototype.get())));
+        assertThat(prototype.peek().isPresent(), is(false));
+
+        final Service<ServiceD> thread = scoped.service("thread", ServiceD.class);
+        // not created by eager instantiation
+        assertThat(thread.peek().isPresent(), is(false));
+        final ServiceD threadInstance = thread.get();
+        assertThat(thread.get(), sameInstance(threadInstance));
+        assertThat(thread.peek().orElseThrow(), sameInstance(threadInstance));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ServiceD otherThreadInstance;
+        try {
+            assertThat(executor.submit(() -> thread.peek().isPresent()).get(), is(false));
+            otherThreadInstance = executor.submit(thread::get).get();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(otherThreadInstance, not(sameInstance(threadInstance)));
+
+        assertThat(customInstances, hasSize(1));
+        assertThat(scoped.get(StringBuilder.class), not(sameInstance(scoped.get(StringBuilder.class))));
+
+        scoped.close();
+        assertThat(threadInstance.closed, is(true));
+        assertThat(otherThreadInstance.closed, is(true));
+    }
+
+    public static class HeavyService {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public HeavyService() {
+            instances.incrementAndGet();
+        }
+    }
+
+    public static class LazyService {
+        final Provider<HeavyService> heavyService;
+        final Optional<Provider<ServiceA>> missingService;
+
+        public LazyService(Provider<HeavyService> heavyService, Optional<Provider<ServiceA>> missingService) {
+            this.heavyService = heavyService;
+            this.missingService = missingService;
+        }
+    }
+
+    @Test
+    public void test_provider_injection() {
+        HeavyService.instances.set(0);
+        final Services lazy = builder()
+                .declare(HeavyService.class).register()
+                .declare(LazyService.class).register()
+                .build();
+        final LazyService lazyService = lazy.get(LazyService.class);
+        assertThat(lazyService.missingService.isPresent(), is(false));
+        assertThat(lazy.service(HeavyService.class).peek().isPresent(), is(false));
+        assertThat(HeavyService.instances.get(), is(0));
+
+        final HeavyService heavyService = lazyService.heavyService.get();
+        assertThat(heavyService, sameInstance(lazy.get(HeavyService.class)));
+        assertThat(lazyService.heavyService.get(), sameInstance(heavyService));
+        assertThat(HeavyService.instances.get(), is(1));
+    }
+
+    public static class OptionalUser {
+        final Optional<HeavyService> heavyService;
+        final Provider<HeavyService> heavyServiceProvider;
+
+        public OptionalUser(Optional<HeavyService> heavyService, Provider<HeavyService> heavyServiceProvider) {
+            this.heavyService = heavyService;
+            this.heavyServiceProvider = heavyServiceProvider;
+        }
+    }
+
+    @Test
+    public void test_prototype_arguments_reuse() {
+        final Services prototypes = builder()
+                .declare(HeavyService.class).register()
+                .declare(OptionalUser.class).withScope(ServiceScope.PROTOTYPE).register()
+                .build();
+        final OptionalUser first = prototypes.get(OptionalUser.class);
+        final OptionalUser second = prototypes.get(OptionalUser.class);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(first.heavyService.orElseThrow(), sameInstance(prototypes.get(HeavyService.class)));
+        // arguments not depending on the created instance are not allocated again
+        assertThat(second.heavyService, sameInstance(first.heavyService));
+        assertThat(second.heavyServiceProvider, sameInstance(first.heavyServiceProvider));
+    }
+
+    @Test
+    public void test_unresolved_provider() {
+        try {
+            builder().declare(LazyService.class).register().build();
+            fail("unresolved provider dependency");
+        } catch (ServiceResolutionException e) {
+            // expected, providers are resolved at build time
+        }
+    }
+
+    public static class SlowService {
+        static final AtomicInteger instances = new AtomicInteger();
+        final HeavyService heavyService;
+        final String thread;
+
+        public SlowService(HeavyService heavyService) throws InterruptedException {
+            Thread.sleep(50);
+            this.heavyService = heavyService;
+            this.thread = Thread.currentThread().getName();
+            instances.incrementAndGet();
+        }
+    }
+
+    public static class FailingService {
+        public FailingService() {
+            throw new IllegalStateException("creation failure");
+        }
+    }
+
+    @Test
+    public void test_async_get() throws Exception {
+        SlowService.instances.set(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "async-get"));
+        try {
+            final Services async = builder()
+                    .withAsyncExecutor(executor)
+                    .declare(HeavyService.class).register()
+                    .declare(SlowService.class).register()
+                    .declare(FailingService.class).register()
+                    .build();
+            final CompletableFuture<SlowService> first = async.getAsync(SlowService.class);
+            final CompletableFuture<SlowService> second = async.getAsync(SlowService.class);
+            assertThat(second, sameInstance(first));
+
+            final SlowService slowService = first.get(1, TimeUnit.SECONDS);
+            assertThat(slowService.thread, is("async-get"));
+            assertThat(slowService.heavyService, sameInstance(async.get(HeavyService.class)));
+            assertThat(SlowService.instances.get(), is(1));
+            assertThat(async.getAsync(SlowService.class).getNow(null), sameInstance(slowService));
+
+            try {
+                async.getAsync(FailingService.class).join();
+                fail("creation failure not propagated");
+            } catch (CompletionException e) {
+                assertThat(e.getCause(), instanceOf(ServiceCreationException.class));
+            }
+            assertThat(async.getAsync(ServiceA.class).isCompletedExceptionally(), is(true));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static final List<String> closed = Collections.synchronizedList(new ArrayList<>());
+
+    public static class Closing implements AutoCloseable {
+        @Override
+        public void close() throws Exception {
+            closed.add(getClass().getSimpleName());
+        }
+    }
+
+    public static class Connection extends Closing {
+    }
+
+    public static class Repository extends Closing {
+        public Repository(Connection connection) {
+        }
+    }
+
+    public static class Controller extends Closing {
+        public Controller(Repository repository, Connection connection) {
+        }
+    }
+
+    public static class FailingCloser extends Closing {
+        public FailingCloser(Connection connection) {
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("close failure");
+        }
+    }
+
+    public static class SlowCloser extends Closing {
+        @Override
+        public void close() throws Exception {
+            Thread.sleep(500);
+            super.close();
+        }
+    }
+
+    @Test
+    public void test_shutdown() {
+        for (Executor executor : Arrays.asList(null, Executors.newFixedThreadPool(4))) {
+            closed.clear();
+            final DefaultServices closing = builder()
+                    .withCloseExecutor(executor)
+                    .withCloseTimeout(Duration.ofMillis(100))
+                    .declare(SlowCloser.class).register()
+                    .declare(FailingCloser.class).register()
+                    .declare(Controller.class).register()
+                    .declare(Repository.class).register()
+                    .declare(Connection.class).register()
+                    .build();
+            closing.stream().filter(s -> s.isAssignableTo(Closing.class)).forEach(Service::get);
+
+            final ShutdownReport report = closing.shutdown();
+            assertThat(report.failures(), hasSize(1));
+            assertThat(report.failures().get(0).service().type(), is((Type) FailingCloser.class));
+            assertThat(report.failures().get(0).error(), instanceOf(ServiceCloseException.class));
+            assertThat(report.timedOut(), hasSize(1));
+            assertThat(report.timedOut().get(0).service().type(), is((Type) SlowCloser.class));
+            assertThat(report.isClean(), is(false));
+
+            final List<String> closeOrder = new ArrayList<>(closed);
+            closeOrder.remove("SlowCloser");
+            assertThat(closeOrder, contains("Controller", "Repository", "Connection"));
+            if (executor instanceof ExecutorService)
+                ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    public static class SlowRepository extends SlowCloser {
+        public SlowRepository(Connection connection) {
+        }
+    }
+
+    @Test
+    public void test_shutdown_timeout_keeps_dependencies_open() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            closed.clear();
+            final DefaultServices closing = builder()
+                    .withCloseExecutor(executor)
+                    .withCloseTimeout(Duration.ofMillis(100))
+                    .declare(SlowRepository.class).register()
+                    .declare(Connection.class).register()
+                    .build();
+            closing.get(SlowRepository.class);
+
+            final ShutdownReport report = closing.shutdown();
+            assertThat(report.timedOut(), hasSize(1));
+            assertThat(report.timedOut().get(0).service().type(), is((Type) SlowRepository.class));
+            // the slow repository may still use its connection
+            assertThat(report.keptOpen().stream().map(e -> e.service().type()).collect(Collectors.toList()),
+                    hasItem(Connection.class));
+            assertThat(closed, not(hasItem("Connection")));
+            assertThat(report.isClean(), is(false));
+        } finally {
+            // wait for the abandoned close
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS), is(true));
+        }
+        assertThat(closed, contains("SlowRepository"));
+    }
+
+    @Test
+    public void test_targeted_instance_transformer() {
+        final List<Object> transformeds = new ArrayList<>();
+        final Services transformed = builder()
+                .declare(ServiceInstanceTransformer.class).withInstance(new ServiceInstanceTransformer() {
+                    @Override
+                    public <T> T transform(ServiceDeclaration<? super T> declaration, T instance) {
+                        transformeds.add(instance);
+                        return instance;
+                    }
+
+                    @Override
+                    public Type targetType() {
+                        return CharSequence.class;
+                    }
+                }).register()
+                .declare(StringBuilder.class).withInstanceFactory(d -> new StringBuilder("sb")).register()
+                .declare(ServiceB.class).withInstanceFactory(d -> new ServiceB("b")).register()
+                .build();
+        final StringBuilder sb = transformed.get(StringBuilder.class);
+        transformed.get(ServiceB.class);
+        assertThat(transformeds, contains(sameInstance(sb)));
+    }
+
+    @Test
+    public void test_prototype_instance_transformer() {
+        final AtomicInteger transformers = new AtomicInteger();
+        final Services transformed = builder()
+                .declare(ServiceInstanceTransformer.class).withScope(ServiceScope.PROTOTYPE)
+                .withInstanceFactory(d -> {
+                    final int id = transformers.incrementAndGet();
+                    return new ServiceInstanceTransformer() {
+                        @Override
+                        public <T> T transform(ServiceDeclaration<? super T> declaration, T instance) {
+                            ((StringBuilder) instance).append(id);
+                            return instance;
+                        }
+
+                        @Override
+                        public Type targetType() {
+                            return StringBuilder.class;
+                        }
+                    };
+                }).register()
+                .declare(StringBuilder.class).withScope(ServiceScope.PROTOTYPE)
+                .withInstanceFactory(d -> new StringBuilder("sb")).register()
+                .build();
+        // transformers are not created by the build
+        assertThat(transformers.get(), is(0));
+        final String first = transformed.get(StringBuilder.class).toString();
+        final String second = transformed.get(StringBuilder.class).toString();
+        // each instance is transformed by a new transformer instance
+        assertThat(first, is("sb" + (transformers.get() - 1)));
+        assertThat(second, is("sb" + transformers.get()));
+    }
+
+    @Test
+    public void test_wiring_plan() throws IOException {
+        final Path file = Files.createTempDirectory("sinject").resolve("wiring.plan");
+        final ServiceF recorded = wiredServiceF(file);
+        assertThat(Files.exists(file), is(true));
+        final byte[] plan = Files.readAllBytes(file);
+
+        // replayed, nothing new to record
+        final ServiceF replayed = wiredServiceF(file);
+        assertThat(replayed.getServiceA(), not(sameInstance(recorded.getServiceA())));
+        assertThat(Files.readAllBytes(file), is(plan));
+
+        // corrupted plan is resolved and recorded again
+        Files.write(file, new byte[]{1, 2, 3});
+        wiredServiceF(file);
+        assertThat(Files.readAllBytes(file), is(plan));
+    }
+
+    public static class Greeting {
+        final String value;
+
+        public Greeting() {
+            this("hello");
+        }
+
+        public Greeting(String value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void test_wiring_plan_parent_changed() throws IOException {
+        final Path file = Files.createTempDirectory("sinject").resolve("wiring.plan");
+        assertThat(greeting(builder().build(), file).value, is("hello"));
+        final byte[] plan = Files.readAllBytes(file);
+
+        // the parent does not change the planned constructor, the plan is replayed as is
+        final Services integerParent = builder().declare(Integer.class).withInstance(42).register().build();
+        assertThat(greeting(integerParent, file).value, is("hello"));
+        assertThat(Files.readAllBytes(file), is(plan));
+
+        // the parent provides a String, the planned constructor is checked against the better candidate
+        final Services stringParent = builder().declare(String.class).withInstance("parent").register().build();
+        assertThat(greeting(stringParent, file).value, is("parent"));
+        assertThat(Files.readAllBytes(file), not(plan));
+    }
+
+    private Greeting greeting(Services parent, Path file) {
+        try (DefaultServices services = builder()
+                .withParent(parent)
+                .withWiringPlan(file)
+                .declare(Greeting.class).register()
+                .build()) {
+            return services.get(Greeting.class);
+        }
+    }
+
+    private ServiceF wiredServiceF(Path file) {
+        final Services wired = builder()
+                .withParent(parent)
+                .withWiringPlan(file)
+                .declare(ServicesConfiguration.class).withName("theConfiguration").register()
+                .build();
+        try {
+            final ServiceF serviceF = wired.get(ServiceF.class);
+            assertThat(serviceF.getServiceA(), sameInstance(wired.get("serviceA", ServiceA.class)));
+            assertThat(serviceF.getServiceE(), sameInstance(wired.get(ServiceE.class)));
+            return serviceF;
+        } finally {
+            wired.close();
+        }
+    }
+
+    @Test
+    public void test_conditional_services() {
+        final Services conditional = builder()
+                .withParent(parent)
+                .declare(ConditionalConfiguration.class).register()
+                .build();
+        final ConditionalConfiguration configuration = conditional.get(ConditionalConfiguration.class);
+        assertThat(configuration.created.get(), is(0));
+        assertThat(conditional.services(ServiceA.class).stream().count(), is(0L));
+
+        assertThat(conditional.get(ServiceB.class).theString, is("the string value"));
+        assertThat(configuration.created.get(), is(1));
+        try {
+            conditional.get(StringBuilder.class);
+            fail("empty conditional service created");
+        } catch (ServiceCreationException e) {
+            assertThat(ExceptionUtils.getRootCause(e).getMessage(), containsString("condition is true"));
+        }
+    }
+
+    public static class ConditionalConfiguration {
+        final AtomicInteger created = new AtomicInteger();
+
+        public boolean enabled(String theString) {
+            return theString != null;
+        }
+
+        public static boolean disabled() {
+            return false;
+        }
+
+        @org.yah.sinject.annotations.Service(condition = "enabled")
+        public Optional<ServiceB> lazyService(String theString) {
+            created.incrementAndGet();
+            return Optional.of(new ServiceB(theString));
+        }
+
+        @org.yah.sinject.annotations.Service(condition = "disabled")
+        public Optional<ServiceA> disabledService() {
+            throw new IllegalStateException("condition not checked");
+        }
+
+        @org.yah.sinject.annotations.Service(condition = "enabled")
+        public Optional<StringBuilder> emptyService() {
+            return Optional.empty();
+        }
+    }
+
+    @Test
+    public void test_metrics() throws Exception {
+        assertThat(builder().build().metrics().isPresent(), is(false));
+
+        final DefaultServices measured = builder()
+                .withName("measuredServices")
+                .withMetrics(true)
+                .declare(ServiceB.class).withScope(ServiceScope.PROTOTYPE)
+                .withInstanceFactory(d -> new ServiceB("b")).register()
+                .build();
+        final ObjectName objectName = measured.metrics().orElseThrow().objectName();
+        try {
+            for (int i = 0; i < 3; i++)
+                measured.get(ServiceB.class);
+            assertThat(measured.tryService(null, ServiceA.class).isResolved(), is(false));
+
+            final MetricsSnapshot snapshot = measured.metrics().orElseThrow().snapshot();
+            assertThat(snapshot.lookups(), is(4L));
+            assertThat(snapshot.hits(), is(3L));
+            assertThat(snapshot.misses(), is(1L));
+            assertThat(snapshot.conflicts(), is(0L));
+            final MetricsSnapshot.ServiceSnapshot serviceB = snapshot.services().stream()
+                    .filter(s -> s.service().isAssignableTo(ServiceB.class))
+                    .findFirst().orElseThrow();
+            assertThat(serviceB.accesses(), is(3L));
+            assertThat(serviceB.creations(), is(3L));
+            assertThat(serviceB.creationLatency(1).toNanos(), greaterThan(0L));
+            assertThat(Arrays.stream(serviceB.histogram()).sum(), is(3L));
+
+            assertThat(objectName.getKeyProperty("name"), is("\"measuredServices\""));
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Hits"), is(3L));
+        } finally {
+            measured.close();
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName), is(false));
+    }
+
+    @Test
+    public void test_flight_recorder_events() throws IOException {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.yah.sinject.BuildPhase");
+            recording.enable("org.yah.sinject.Instantiation");
+            recording.enable("org.yah.sinject.ResolutionFailure");
+            recording.start();
+            try (DefaultServices recorded = builder()
+                    .withName("recordedServices")
+                    .declare(ServiceB.class).withScope(ServiceScope.PROTOTYPE)
+                    .withInstanceFactory(d -> new ServiceB("b")).register()
+                    .build()) {
+                recorded.get(ServiceB.class);
+                recorded.get(ServiceB.class);
+                try {
+                    recorded.get(ServiceA.class);
+                    fail("ServiceA resolved");
+                } catch (NoSuchServiceException e) {
+                    // expected
+                }
+            }
+            recording.stop();
+            final Path file = Files.createTempFile("sinject", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        final List<String> phases = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.yah.sinject.BuildPhase"))
+                .filter(e -> "recordedServices".equals(e.getString("services")))
+                .map(e -> e.getString("phase"))
+                .collect(Collectors.toList());
+        assertThat(phases, contains("methodScanning", "transformersPreparation", "declarationsProcessing"));
+
+        final List<RecordedEvent> instantiations = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.yah.sinject.Instantiation"))
+                .filter(e -> ServiceB.class.getTypeName().equals(e.getString("serviceType")))
+                .collect(Collectors.toList());
+        assertThat(instantiations, hasSize(2));
+        assertThat(instantiations.get(0).getInt("priority"), is(0));
+        assertThat(instantiations.get(0).getString("scope"), is(ServiceScope.PROTOTYPE));
+
+        assertThat(events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.yah.sinject.ResolutionFailure"))
+                .anyMatch(e -> ServiceA.class.getTypeName().equals(e.getString("serviceType"))), is(true));
+    }
+
+    @Test
+    public void test_unknown_scope() {
+        try {
+            builder().declare(ServiceB.class).withScope("unknown")
+                    .withInstanceFactory(d -> new ServiceB("b")).register()
+                    .build();
+            fail("unknown scope accepted");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("unknown scope 'unknown'"));
+        }
+    }
+
+    private Matcher<Iterable<ServiceDeclaration<?>>> containsAllExcept(Predicate<Service<?>> predicate) {
+        final List<Service<?>> unexpecteds = services.stream()
+                                                     .filter(predicate)
+                                                     .collect(Collectors.toList());
+        return new TypeSafeMatcher<>() {
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("all services excepted ").appendValue(unexpecteds);
+            }
+
+            @Override
+            protected boolean matchesSafely(Iterable<ServiceDeclaration<?>> actuals) {
+                List<Service<?>> remainings = new ArrayList<>();
+                services.stream()
+                        .filter(s -> !unexpecteds.contains(s))
+                        .forEach(remainings::add);
+                for (ServiceDeclaration<?> actual : actuals) {
+                    boolean found = remainings.removeIf(s -> s.match(actual));
+                    if (!found && safeGet(actual) != null) {
+                        // optional service must not be declared
+                        return false;
+                    }
+                }
+                return remainings.isEmpty();
+            }
+
+            @Override
+            protected void describeMismatchSafely(Iterable<ServiceDeclaration<?>> actuals, Description mismatchDescription) {
+                List<Service<?>> remainings = new ArrayList<>();
+                services.stream()
+                        .filter(Predicate.not(predicate))
+                        .forEach(remainings::add);
+                for (ServiceDeclaration<?> actual : actuals) {
+                    boolean found = remainings.removeIf(s -> s.match(actual));
+                    final Service<?> actualService = safeGet(actual);
+                    if (!found && actualService != null) {
+                        mismatchDescription.appendText("missing").appendValue(actualService);
+                        return;
+                    }
+                }
+                if (!remainings.isEmpty()) {
+                    mismatchDescription.appendText("unexpecteds" + remainings);
+                }
+            }
+        };
+    }
+
+    private <T> Service<T> safeGet(ServiceDeclaration<T> declaration) {
+        try {
+            //noinspection unchecked
+            return (Service<T>) services.service(declaration.name(), declaration.type());
+        } catch (NoSuchServiceException e) {
+            return null;
+        }
+    }
+
+    private static Matcher<Service<?>> match(String name, Class<?> type) {
+        return match(name, type, 0);
+    }
+
+    private static Matcher<Service<?>> match(String name, Type type, int priority) {
+        return new TypeSafeMatcher<>() {
+            @Override
+            public void describeTo(Description description) {
+                description.appendText(new DefaultServiceDefinition(type, name, priority).toString());
+            }
+
+            @Override
+            protected boolean matchesSafely(Service<?> item) {
+                return item.match(name, type) && item.priority() == priority;
+            }
+        };
+    }
+
+    private static Matcher<ServiceCreationException> isCausedBy(Class<? extends Throwable> expectedCause) {
+        return new TypeSafeMatcher<>() {
+            @Override
+            public void describeTo(Description description) {
+                description.appendValue(expectedCause);
+            }
+
+            @Override
+            protected boolean matchesSafely(ServiceCreationException item) {
+                final Throwable rootCause = ExceptionUtils.getRootCause(item);
+                System.out.println(rootCause.getMessage());
+                return expectedCause.isAssignableFrom(rootCause.getClass());
+            }
+        };
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,406 @@
+package org.yah.sinject.impl;
+
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceDefinition;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.TypedServices;
+import org.yah.sinject.impl.DefaultServices;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.exceptions.ConflictingServicesException;
+import org.yah.sinject.exceptions.DuplicateServiceException;
+import org.yah.sinject.exceptions.NoSuchServiceException;
+import org.yah.sinject.impl.builder.declarations.DefaultServiceDeclaration;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DefaultServicesTest {
+
+    private DefaultServices services;
+
+    @Before
+    public void setUp() {
+        services = new DefaultServices();
+    }
+
+    @Test
+    public void add_correct_service() {
+        final Service<TestService> a = service(new TestService("A"));
+        // check created service definition
+        assertThat(a.match("A", TestService.class), is(true));
+        assertThat(a.priority(), is(0));
+        assertThat(a.getSource(), is(services));
+        // check that service has not been instantiated
+        assertThat(a.peek(), is(Optional.empty()));
+    }
+
+    @Test
+    public void add_sorted() {
+        assertThat(services, emptyIterable());
+
+        final Service<TestService> a = service(new TestService("A"));
+        // check content
+        assertThat(services, contains(a));
+
+        // tail insertion
+        final Service<TestService> b = service(new TestService("B", 10));
+        assertThat(services, Matchers.contains(a, b));
+
+        // head insertion
+        final Service<TestService> c = service(new TestService("C", -10));
+        assertThat(services, Matchers.contains(c, a, b));
+
+        // after existing insertion
+        final Service<TestService> d = service(new TestService("D", 0));
+        assertThat(services, Matchers.contains(c, a, d, b));
+
+        // after existing at end
+        final Service<TestService> e = service(new TestService("E", 10));
+        assertThat(services, Matchers.contains(c, a, d, b, e));
+    }
+
+    @Test
+    public void add_conflict() {
+        service(new TestService("A"));
+        service(new TestService("B"));
+        service(new TestService("C"));
+        try {
+            service(new TestService("A"));
+            fail("Should have failed");
+        } catch (DuplicateServiceException e) {
+            // expected
+        }
+        // test with parent
+        services = new DefaultServices(services);
+        try {
+            service(new TestService("A"));
+            fail("Should have failed");
+        } catch (DuplicateServiceException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void with_parent() {
+        final DefaultServices parent = new DefaultServices();
+        parent.add(service(new TestService("A", 5)));
+        parent.add(service(new TestService("B", -4)));
+        parent.add(service(new TestService("C", 2)));
+
+        services = new DefaultServices(parent);
+        service(new TestService("D", -10));
+        service(new TestService("E", 5));
+        service(new TestService("F", 10));
+        service(new TestService("G", 1));
+
+        final List<String> names = services.stream().map(Service::name).collect(Collectors.toList());
+        assertThat(names, contains("D", "B", "G", "C", "A", "E", "F"));
+    }
+
+    @Test
+    public void with_frozen_parent() {
+        final DefaultServices parent = services;
+        service(new TestService("A", 5));
+        service(new TestService("B", -4));
+        service(new TestService("C", 2));
+        service("S", 0, "parent");
+        final AtomicBoolean parentClosed = new AtomicBoolean();
+        service("closeable", 0, (AutoCloseable) () -> parentClosed.set(true), AutoCloseable.class);
+        parent.get("closeable", AutoCloseable.class);
+        parent.freeze();
+
+        services = new DefaultServices(parent);
+        service(new TestService("D", -10));
+        service(new TestService("E", 5));
+        service(new TestService("F", 10));
+        service(new TestService("G", 1));
+        service("S2", 0, "child");
+        try {
+            service(new TestService("A", 5));
+            fail("parent conflict not detected");
+        } catch (DuplicateServiceException e) {
+            // expected
+        }
+
+        final List<String> expectedNames = List.of("D", "B", "S", "closeable", "S2", "G", "C", "A", "E", "F");
+        for (int i = 0; i < 2; i++) {
+            assertThat(services.stream().map(Service::name).collect(Collectors.toList()), is(expectedNames));
+            assertThat(services.get("A", TestService.class).name, is("A"));
+            assertThat(services.service("G", TestService.class).getSource(), is(services));
+            assertThat(services.services(TestService.class).stream().map(Service::name).collect(Collectors.toList()),
+                    contains("D", "B", "G", "C", "A", "E", "F"));
+            try {
+                services.service(String.class);
+                fail("conflict not detected");
+            } catch (ConflictingServicesException e) {
+                assertThat(e.getCandidates().stream().map(ServiceDefinition::name).collect(Collectors.toList()),
+                        contains("S", "S2"));
+            }
+            services.freeze();
+        }
+
+        services.close();
+        assertThat(parentClosed.get(), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void freeze() {
+        services.freeze();
+        service("A", 5, "a+5");
+    }
+
+    @Test
+    public void dynamic_registration() throws InterruptedException {
+        service("A", 5, "a+5");
+        services.freeze();
+        services.enableDynamicRegistration();
+        final TypedServices<String> strings = services.services(String.class);
+
+        service("B", 2, "b+2");
+        assertThat(services.service(String.class).get(), is("b+2"));
+        assertThat(services.services(String.class).stream().map(Service::get).collect(Collectors.toList()),
+                contains("b+2", "a+5"));
+        // views are snapshots
+        assertThat(strings.stream().count(), is(1L));
+        try {
+            service("B", 2, "other b+2");
+            fail("duplicate registered");
+        } catch (DuplicateServiceException e) {
+            // expected
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> readerError = new AtomicReference<>();
+        final Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    assertThat(services.service("A", String.class).get(), is("a+5"));
+                }
+            } catch (Throwable e) {
+                readerError.set(e);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 100; i++)
+            service("C" + i, i, (long) i);
+        running.set(false);
+        reader.join();
+        assertThat(readerError.get(), nullValue());
+        assertThat(services.services(Long.class).stream().count(), is(100L));
+        assertThat(services.service(Long.class).get(), is(0L));
+
+        // already frozen, dynamic registrations are kept
+        services.freeze();
+        assertThat(services.service(String.class).get(), is("b+2"));
+        assertThat(services.services(Long.class).stream().count(), is(100L));
+    }
+
+    @Test
+    public void resolution_from_type() {
+        service("A", 5, "a+5");
+        service("A", 2, "a+2");
+        service("A", 0, 0L);
+        service("A", -5, 42L, Number.class);
+
+        // preparedService("B" , -10, "b-10");
+        // preparedService("B" , 0, 10);
+
+        Service<?> service = services.service(String.class);
+        assertThat(service.get(), is("a+2"));
+
+        service = services.service(Long.class);
+        assertThat(service.get(), is(0L));
+
+        service = services.service(Number.class);
+        assertThat(service.get(), is(42L));
+    }
+
+    @Test
+    public void resolution_from_name_and_type() {
+        service("A", 5, "a+5");
+        service("A", 2, "a+2");
+        service("A", 0, 0L);
+        service("A", -5, 42, Number.class);
+
+        service("B", -10, "b-10");
+        service("B", 0, 10, Number.class);
+        service("B", 10, 100);
+
+        Service<?> service = services.service("A", String.class);
+        assertThat(service.get(), is("a+2"));
+
+        service = services.service("A", Long.class);
+        assertThat(service.get(), is(0L));
+
+        service = services.service("A", Number.class);
+        assertThat(service.get(), is(42));
+
+        service = services.service("B", String.class);
+        assertThat(service.get(), is("b-10"));
+
+        service = services.service("B", Number.class);
+        assertThat(service.get(), is(10));
+
+        service = services.service("B", Integer.class);
+        assertThat(service.get(), is(100));
+    }
+
+    @Test(expected = ConflictingServicesException.class)
+    public void resolution_conflict() {
+        service("A", 0, "a");
+        service("B", 0, "b");
+        services.service(String.class);
+    }
+
+    @Test
+    public void resolution_not_found() {
+        service("A", 0, "a");
+        service("B", 0, "b");
+
+        try {
+            services.service("C", String.class);
+            fail("service was found");
+        } catch (NoSuchServiceException e) {
+            // expected
+        }
+
+        try {
+            services.service(Long.class);
+            fail("service was found");
+        } catch (NoSuchServiceException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void try_resolution() {
+        service("A", 0, "a");
+        service("B", 0, "b");
+        service("C", 0, 1L);
+
+        final ServiceResolution resolved = services.tryService(null, Long.class);
+        assertThat(resolved.isResolved(), is(true));
+        assertThat(resolved.get().get(), is(1L));
+
+        final ServiceResolution conflicting = services.tryService(null, String.class);
+        assertThat(conflicting.isResolved(), is(false));
+        assertThat(conflicting.isConflicting(), is(true));
+        assertThat(conflicting.exception(), instanceOf(ConflictingServicesException.class));
+
+        services.freeze();
+        final ServiceResolution missing = services.tryService("D", String.class);
+        assertThat(missing.isResolved(), is(false));
+        assertThat(missing.optional().isPresent(), is(false));
+        assertThat(missing.exception(), instanceOf(NoSuchServiceException.class));
+        // memoized
+        assertThat(services.tryService("D", String.class), sameInstance(missing));
+    }
+
+    @Test
+    public void frozen_resolution() {
+        service("A", 5, "a+5");
+        service("A", 2, "a+2");
+        service("B", 2, "b+2");
+        service("A", 0, 0L);
+        services.freeze();
+
+        final Service<?> service = services.service("A", String.class);
+        assertThat(service.get(), is("a+2"));
+        assertThat(services.service("A", String.class), sameInstance(service));
+        assertThat(services.service(Long.class).get(), is(0L));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                services.service(String.class);
+                fail("conflict not detected");
+            } catch (ConflictingServicesException e) {
+                assertThat(e.getCandidates(), hasSize(2));
+            }
+            try {
+                services.service("C", String.class);
+                fail("service was found");
+            } catch (NoSuchServiceException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void frozen_typed_services() {
+        service("A", 5, "a+5");
+        service("A", 2, "a+2");
+        service("B", 2, 2);
+        service("C", 0, 0L);
+        services.freeze();
+
+        final TypedServices<Number> numbers = services.services(Number.class);
+        assertThat(services.services(Number.class), sameInstance(numbers));
+        assertThat(numbers.stream().map(Service::get).collect(Collectors.toList()), contains((Number) 0L, 2));
+        assertThat(numbers.services(Long.class), sameInstance(numbers.services(Long.class)));
+        assertThat(numbers.services(Long.class).stream().map(Service::name).collect(Collectors.toList()),
+                contains("C"));
+
+        final Spliterator<Service<Number>> spliterator = numbers.spliterator();
+        assertThat(spliterator.hasCharacteristics(Spliterator.SUBSIZED), is(true));
+        assertThat(spliterator.estimateSize(), is(2L));
+        assertThat(services.services(CharSequence.class).stream(true).count(), is(2L));
+
+        final Iterator<Service<Number>> iterator = numbers.iterator();
+        iterator.next();
+        try {
+            iterator.remove();
+            fail("materialized services were modified");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private <T> void service(String name, int priority, T instance) {
+        //noinspection unchecked
+        service(name, priority, instance, (Class<T>) instance.getClass());
+    }
+
+    private <T> void service(String name, int priority, T instance, Class<T> type) {
+        final DefaultServiceDeclaration<T> declaration = DefaultServiceDeclaration.builder(type)
+                .withName(name)
+                .withPriority(priority)
+                .withFactory(services -> instance)
+                .build();
+        services.add(declaration, () -> instance);
+    }
+
+    private Service<TestService> service(TestService serviceInstance) {
+        final ServiceDeclaration<TestService> declaration = DefaultServiceDeclaration.builder(TestService.class)
+                .withName(serviceInstance.name)
+                .withPriority(serviceInstance.priority)
+                .withFactory(dependencies -> serviceInstance)
+                .build();
+        return services.add(declaration, () -> serviceInstance);
+    }
+
+    private static class TestService {
+        private final String name;
+        private final int priority;
+
+        public TestService(String name) {
+            this(name, 0);
+        }
+
+        public TestService(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+    }
+}
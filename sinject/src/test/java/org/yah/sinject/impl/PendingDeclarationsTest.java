@@ -0,0 +1,91 @@
+package org.yah.sinject.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.yah.sinject.Parametric;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.builder.declarations.DefaultServiceDeclaration;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PendingDeclarationsTest {
+
+    private PendingDeclarations declarations;
+
+    @Before
+    public void setUp() {
+        declarations = new PendingDeclarations();
+    }
+
+    @Test
+    public void find_by_type() {
+        final ServiceDeclaration<?> string = declaration("string", String.class);
+        final ServiceDeclaration<?> integer = declaration("integer", Integer.class);
+        final ServiceDeclaration<?> builder = declaration("builder", StringBuilder.class);
+
+        assertThat(declarations.find(null, String.class), sameInstance(string));
+        assertThat(declarations.find(null, Number.class), sameInstance(integer));
+        assertThat(declarations.find(null, Serializable.class), sameInstance(string));
+        assertThat(declarations.find(null, Appendable.class), sameInstance(builder));
+        assertThat(declarations.find(null, Object.class), sameInstance(string));
+        assertThat(declarations.find(null, List.class), nullValue());
+
+        assertThat(declarations.find("builder", CharSequence.class), sameInstance(builder));
+        assertThat(declarations.find("builder", String.class), nullValue());
+        assertThat(declarations.find("unknown", Object.class), nullValue());
+    }
+
+    @Test
+    public void find_unindexed() {
+        final ServiceDeclaration<?> array = declaration("array", String[].class);
+        final ServiceDeclaration<?> supplier = declaration("supplier", new Parametric<Supplier<String>>() {
+        }.getType());
+
+        assertThat(declarations.find(null, Object[].class), sameInstance(array));
+        assertThat(declarations.find(null, Object.class), sameInstance(array));
+        assertThat(declarations.find(null, new Parametric<Supplier<String>>() {
+        }.getType()), sameInstance(supplier));
+        assertThat(declarations.find(null, new Parametric<Supplier<Integer>>() {
+        }.getType()), nullValue());
+    }
+
+    @Test
+    public void registration_order() {
+        final ServiceDeclaration<?> a = declaration("a", String.class);
+        final ServiceDeclaration<?> b = declaration("b", String.class);
+        // registered twice
+        declarations.add(a);
+
+        final List<ServiceDeclaration<?>> pending = new ArrayList<>();
+        declarations.forEach(pending::add);
+        assertThat(pending, contains(a, b, a));
+
+        assertThat(declarations.peek(), sameInstance(a));
+        assertThat(declarations.remove(a), is(true));
+        assertThat(declarations.peek(), sameInstance(b));
+        assertThat(declarations.find(null, String.class), sameInstance(b));
+        assertThat(declarations.remove(b), is(true));
+        assertThat(declarations.find(null, String.class), sameInstance(a));
+        assertThat(declarations.remove(a), is(true));
+        assertThat(declarations.remove(a), is(false));
+        assertThat(declarations.isEmpty(), is(true));
+        assertThat(declarations.peek(), nullValue());
+        assertThat(declarations.find(null, String.class), nullValue());
+    }
+
+    private ServiceDeclaration<?> declaration(String name, Type type) {
+        final ServiceDeclaration<?> declaration = DefaultServiceDeclaration.builder(type)
+                .withName(name)
+                .withFactory(dependencies -> null)
+                .build();
+        declarations.add(declaration);
+        return declaration;
+    }
+}
@@ -0,0 +1,162 @@
+package org.yah.sinject.impl;
+
+import org.junit.Test;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceLease;
+import org.yah.sinject.Services;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.builder.ServiceInstanceTransformer;
+import org.yah.sinject.exceptions.PoolExhaustedException;
+import org.yah.sinject.exceptions.ServiceResolutionException;
+import org.yah.sinject.impl.scopes.PooledScope;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PooledScopeTest {
+
+    public static class Buffer implements AutoCloseable {
+        private final int id;
+        private boolean transformed;
+        private boolean closed;
+
+        public Buffer(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private Services services(PooledScope scope) {
+        return DefaultServices.builder()
+                .withScope(scope)
+                .declare(ServiceInstanceTransformer.class).withInstance(new ServiceInstanceTransformer() {
+                    @Override
+                    public <T> T transform(ServiceDeclaration<? super T> declaration, T instance) {
+                        if (instance instanceof Buffer)
+                            ((Buffer) instance).transformed = true;
+                        return instance;
+                    }
+                }).register()
+                .declare(Buffer.class).withScope(PooledScope.DEFAULT_NAME)
+                .withInstanceFactory(d -> new Buffer(ids.incrementAndGet())).register()
+                .build();
+    }
+
+    @Test
+    public void lease() {
+        final PooledScope scope = PooledScope.builder()
+                .withMinSize(1)
+                .withMaxSize(2)
+                .withBorrowTimeout(Duration.ofMillis(20))
+                .build();
+        final Services services = services(scope);
+        final Service<Buffer> service = services.service(Buffer.class);
+        try {
+            service.get();
+            fail("pooled instance returned by get");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertThat(service.peek().isPresent(), is(false));
+
+        final Buffer first;
+        try (ServiceLease<Buffer> lease1 = service.lease(); ServiceLease<Buffer> lease2 = service.lease()) {
+            first = lease1.get();
+            assertThat(first.transformed, is(true));
+            assertThat(lease2.get(), not(sameInstance(first)));
+            try {
+                service.lease();
+                fail("pool not exhausted");
+            } catch (PoolExhaustedException e) {
+                // expected
+            }
+            final PooledScope.Metrics metrics = scope.metrics(service).orElseThrow();
+            assertThat(metrics.size(), is(2));
+            assertThat(metrics.leased(), is(2));
+            assertThat(metrics.timeouts(), is(1L));
+        }
+
+        final PooledScope.Metrics metrics = scope.metrics(service).orElseThrow();
+        assertThat(metrics.idle(), is(2));
+        assertThat(metrics.leased(), is(0));
+        assertThat(metrics.created(), is(2L));
+        assertThat(metrics.leases(), is(2L));
+
+        try (ServiceLease<Buffer> lease = service.lease()) {
+            // most recently returned first, resources are closed in reverse order
+            assertThat(lease.get(), sameInstance(first));
+        }
+
+        services.close();
+        assertThat(first.closed, is(true));
+        assertThat(scope.metrics(service).isPresent(), is(false));
+    }
+
+    @Test
+    public void idle_eviction() {
+        final PooledScope scope = PooledScope.builder()
+                .withMinSize(1)
+                .withMaxSize(4)
+                .withMaxIdle(Duration.ZERO)
+                .build();
+        final Service<Buffer> service = services(scope).service(Buffer.class);
+
+        final ServiceLease<Buffer> lease1 = service.lease();
+        final ServiceLease<Buffer> lease2 = service.lease();
+        final Buffer buffer1 = lease1.get();
+        final Buffer buffer2 = lease2.get();
+        lease1.close();
+        lease2.close();
+        // closing twice has no effect
+        lease2.close();
+
+        final PooledScope.Metrics metrics = scope.metrics(service).orElseThrow();
+        assertThat(metrics.size(), is(1));
+        assertThat(metrics.evicted(), is(1L));
+        assertThat(buffer1.closed, is(true));
+        assertThat(buffer2.closed, is(false));
+    }
+
+    @Test
+    public void unpooled_lease() {
+        final Services services = DefaultServices.builder()
+                .declare(Buffer.class).withInstanceFactory(d -> new Buffer(0)).register()
+                .build();
+        try (ServiceLease<Buffer> lease = services.service(Buffer.class).lease()) {
+            assertThat(lease.get(), sameInstance(services.get(Buffer.class)));
+        }
+        assertThat(services.get(Buffer.class).closed, is(false));
+    }
+
+    public static class BufferUser {
+        public BufferUser(Optional<Buffer> buffer) {
+        }
+    }
+
+    @Test
+    public void pooled_dependency_rejected() {
+        try {
+            DefaultServices.builder()
+                    .withScope(PooledScope.builder().build())
+                    .declare(Buffer.class).withScope(PooledScope.DEFAULT_NAME)
+                    .withInstanceFactory(d -> new Buffer(0)).register()
+                    .declare(BufferUser.class).register()
+                    .build();
+            fail("pooled service injected");
+        } catch (ServiceResolutionException e) {
+            assertThat(e.getMessage(), containsString("is pooled and can only be leased"));
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+package org.yah.sinject.impl;
+
+import org.junit.Test;
+import org.yah.sinject.annotations.Service;
+import org.yah.sinject.builder.Arguments;
+import org.yah.sinject.builder.ConstructorWiring;
+import org.yah.sinject.builder.Invoker;
+import org.yah.sinject.builder.MethodWiring;
+import org.yah.sinject.impl.builder.declarations.ServiceWirings;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ServiceWiringsTest {
+
+    @Test
+    public void reflective_constructors() throws Exception {
+        final List<ConstructorWiring<ReflectiveConfiguration>> constructors = ServiceWirings.constructors(ReflectiveConfiguration.class);
+        assertThat(constructors, hasSize(1));
+        final ConstructorWiring<ReflectiveConfiguration> constructor = constructors.get(0);
+        assertThat(constructor.isAnnotated(), is(true));
+        assertThat(constructor.getName(), is(Optional.of("reflective")));
+        assertThat(constructor.getParameters(), hasSize(1));
+        final ReflectiveConfiguration configuration = constructor.getInvoker().invoke(new Object[]{"prefix-"});
+        assertThat(configuration.prefix, is("prefix-"));
+    }
+
+    @Test
+    public void reflective_methods() throws Exception {
+        final Map<String, MethodWiring> methods = ServiceWirings.methods(ReflectiveConfiguration.class).stream()
+                .collect(Collectors.toMap(MethodWiring::getName, Function.identity()));
+        assertThat(methods.keySet(), containsInAnyOrder("prefixed", "staticValue", "failing", "conditional"));
+
+        final ReflectiveConfiguration configuration = new ReflectiveConfiguration("prefix-");
+        assertThat(methods.get("prefixed").getInvoker().invoke(new Object[]{configuration, "value"}),
+                is("prefix-value"));
+        assertThat(methods.get("staticValue").getInvoker().invoke(new Object[]{21}), is(42));
+        try {
+            methods.get("failing").getInvoker().invoke(new Object[]{configuration});
+            fail("no error ?");
+        } catch (IllegalStateException e) {
+            // not wrapped in an InvocationTargetException
+            assertThat(e.getMessage(), is("expected error"));
+        }
+
+        final MethodWiring condition = methods.get("conditional").getCondition().orElseThrow();
+        assertThat(condition.getMethodName(), is("hasPrefix"));
+        assertThat(condition.getInvoker().invoke(new Object[]{configuration}), is(true));
+        assertThat(methods.get("prefixed").getCondition().isPresent(), is(false));
+    }
+
+    @Test
+    public void bound_members() throws Exception {
+        final List<ConstructorWiring<BoundConfiguration>> constructors = ServiceWirings.constructors(BoundConfiguration.class);
+        final Invoker<? extends BoundConfiguration> constructor = constructors.get(0).getInvoker();
+        // accessible members are called by a generated class, not through a method handle
+        assertThat(constructor.getClass().getName(), containsString("LambdaInvokers$$Lambda"));
+        final BoundConfiguration configuration = constructor.invoke(Arguments.of("prefix-"));
+        assertThat(configuration.prefix, is("prefix-"));
+
+        final Map<String, MethodWiring> methods = ServiceWirings.methods(BoundConfiguration.class).stream()
+                .collect(Collectors.toMap(MethodWiring::getName, Function.identity()));
+        assertThat(methods.get("prefixed").getInvoker().invoke(Arguments.of(configuration, "value")),
+                is("prefix-value"));
+        assertThat(methods.get("staticValue").getInvoker().invoke(new Object[]{21}), is(42));
+        assertThat(methods.get("conditional").getCondition().orElseThrow().getInvoker()
+                .invoke(new Object[]{configuration}), is(true));
+        try {
+            methods.get("failing").getInvoker().invoke(new Object[]{configuration});
+            fail("no error ?");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("expected error"));
+        }
+        try {
+            methods.get("prefixed").getInvoker().invoke(new Object[]{configuration});
+            fail("no error ?");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("expected 2 arguments, got 1"));
+        }
+    }
+
+    public static class BoundConfiguration {
+        private final String prefix;
+
+        public BoundConfiguration(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Service
+        public String prefixed(String value) {
+            return prefix + value;
+        }
+
+        @Service
+        public static int staticValue(int value) {
+            return value * 2;
+        }
+
+        @Service
+        public String failing() throws IOException {
+            throw new IOException("expected error");
+        }
+
+        public boolean hasPrefix() {
+            return !prefix.isEmpty();
+        }
+
+        @Service(condition = "hasPrefix")
+        public Optional<String> conditional() {
+            return Optional.of(prefix);
+        }
+
+        // not wired by the processor, reflection is used
+        @Service
+        public <T> List<T> generic() {
+            return List.of();
+        }
+    }
+
+    private static class ReflectiveConfiguration {
+        private final String prefix;
+
+        @Service("reflective")
+        private ReflectiveConfiguration(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Service
+        private String prefixed(String value) {
+            return prefix + value;
+        }
+
+        @Service
+        private static int staticValue(int value) {
+            return value * 2;
+        }
+
+        @Service
+        private String failing() {
+            throw new IllegalStateException("expected error");
+        }
+
+        private boolean hasPrefix() {
+            return !prefix.isEmpty();
+        }
+
+        @Service(condition = "hasPrefix")
+        private Optional<String> conditional() {
+            return Optional.of(prefix);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.yah.sinject.impl;
+
+import org.junit.Test;
+import org.yah.sinject.Service;
+import org.yah.sinject.Services;
+import org.yah.sinject.builder.ServiceScope;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.TestCase.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ThreadScopeTest {
+
+    public static class Resource implements AutoCloseable {
+        private volatile boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static Services services() {
+        return DefaultServices.builder()
+                .declare(Resource.class).withScope(ServiceScope.THREAD)
+                .withInstanceFactory(d -> new Resource()).register()
+                .build();
+    }
+
+    @Test
+    public void dead_threads_instances_are_closed() throws InterruptedException {
+        final Services services = services();
+        final Service<Resource> service = services.service(Resource.class);
+        final AtomicReference<Resource> deadThreadInstance = new AtomicReference<>();
+        final Thread thread = new Thread(() -> deadThreadInstance.set(service.get()));
+        thread.start();
+        thread.join();
+        assertThat(deadThreadInstance.get().closed, is(false));
+
+        final Resource instance = service.get();
+        assertThat(deadThreadInstance.get().closed, is(true));
+        assertThat(instance.closed, is(false));
+
+        services.close();
+        assertThat(instance.closed, is(true));
+    }
+
+    @Test
+    public void closed() {
+        final Services services = services();
+        final Service<Resource> service = services.service(Resource.class);
+        service.get();
+        services.close();
+        assertThat(service.peek().isPresent(), is(false));
+        try {
+            service.get();
+            fail("closed thread scope created an instance");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("closed"));
+        }
+    }
+
+}
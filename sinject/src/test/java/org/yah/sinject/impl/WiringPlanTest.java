@@ -0,0 +1,119 @@
+package org.yah.sinject.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.yah.sinject.Service;
+import org.yah.sinject.ServiceResolution;
+import org.yah.sinject.ServiceResolver;
+import org.yah.sinject.builder.ServiceDeclaration;
+import org.yah.sinject.impl.builder.PlannedResolver;
+import org.yah.sinject.impl.builder.WiringDecisions;
+import org.yah.sinject.impl.builder.declarations.CandidateConstuctors;
+import org.yah.sinject.impl.builder.declarations.DefaultServiceDeclaration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WiringPlanTest {
+
+    private Path file;
+    private ServiceDeclaration<?> named;
+    private ServiceDeclaration<?> unnamed;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempDirectory("sinject").resolve("wiring.plan");
+        named = declaration("builder");
+        unnamed = declaration(null);
+    }
+
+    @Test
+    public void write_and_load() throws IOException {
+        final long fingerprint = WiringPlan.fingerprint(List.of(named, unnamed));
+        assertThat(WiringPlan.fingerprint(List.of(named, declaration(null))), is(fingerprint));
+        assertThat(WiringPlan.load(file, fingerprint), nullValue());
+
+        final WiringPlan plan = WiringPlan.create(fingerprint);
+        plan.decisions(named).constructor(1);
+        plan.decisions(unnamed).constructor(0);
+        plan.transformers(List.of(named));
+        assertThat(plan.isChanged(), is(true));
+        plan.write(file);
+
+        final WiringPlan loaded = WiringPlan.load(file, fingerprint);
+        assertThat(loaded, notNullValue());
+        assertThat(loaded.isChanged(), is(false));
+        assertThat(loaded.transformers(List.of(named)), is(true));
+        assertThat(loaded.transformers(List.of(unnamed)), is(false));
+        assertThat(loaded.decisions(named).constructor(), is(1));
+        // generated names are not part of the key
+        assertThat(loaded.decisions(declaration(null)).constructor(), is(0));
+        assertThat(loaded.isChanged(), is(false));
+
+        assertThat(WiringPlan.load(file, fingerprint + 1), nullValue());
+    }
+
+    @Test
+    public void load_corrupted() throws IOException {
+        final long fingerprint = WiringPlan.fingerprint(List.of(named));
+        final WiringPlan plan = WiringPlan.create(fingerprint);
+        plan.decisions(named).constructor(0);
+        plan.write(file);
+
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThat(WiringPlan.load(file, fingerprint), nullValue());
+
+        Files.write(file, new byte[]{1, 2});
+        assertThat(WiringPlan.load(file, fingerprint), nullValue());
+    }
+
+    public static class Wide {
+        public Wide() {
+        }
+
+        public Wide(String value) {
+        }
+
+        public Wide(String value, Runnable action) {
+        }
+    }
+
+    @Test
+    public void replayed_constructor_skips_candidates() {
+        final Service<?> service = mock(Service.class);
+        doReturn(Object.class).when(service).type();
+        final ServiceResolution resolution = ServiceResolution.resolved(service);
+        final ServiceResolver resolver = mock(ServiceResolver.class);
+        when(resolver.tryService(any(), any())).thenReturn(resolution);
+        final CandidateConstuctors<Wide> candidates = CandidateConstuctors.create(Wide.class);
+
+        // recording: each candidate is resolved
+        final WiringDecisions recorded = new WiringDecisions();
+        assertThat(candidates.resolve(new PlannedResolver(resolver, recorded)).isPresent(), is(true));
+        assertThat(recorded.constructor(), is(2));
+        verify(resolver, times(3)).tryService(any(), any());
+
+        // replayed: the candidates with less parameters can not be better
+        clearInvocations(resolver);
+        final WiringDecisions replayed = WiringDecisions.of(2);
+        assertThat(candidates.resolve(new PlannedResolver(resolver, replayed)).isPresent(), is(true));
+        assertThat(replayed.isChanged(), is(false));
+        verify(resolver, times(2)).tryService(any(), any());
+    }
+
+    private static ServiceDeclaration<?> declaration(String name) {
+        return DefaultServiceDeclaration.builder(StringBuilder.class)
+                .withName(name)
+                .withFactory(dependencies -> null)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package org.yah.sinject.impl.configurations;
+
+import org.yah.sinject.annotations.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Configuration wired by generated code
+ */
+public class WiredConfiguration {
+
+    @Service
+    public static Supplier<String> wiredString() {
+        return () -> "wired";
+    }
+
+    @Service(priority = 3)
+    public List<Supplier<String>> wiredSuppliers(Supplier<String> wiredString, Optional<Supplier<Double>> doubleSupplier) {
+        return doubleSupplier.isPresent() ? List.of() : List.of(wiredString);
+    }
+
+    @Service(name = "wiredClass")
+    public Class<? extends WiredService> wiredServiceClass() {
+        return WiredService.class;
+    }
+
+    @Service
+    public Optional<WiredService> emptyWiredService() {
+        return Optional.empty();
+    }
+
+    @Service(scope = "prototype")
+    public static StringBuilder wiredBuffer() {
+        return new StringBuilder();
+    }
+
+    @Service(scope = "prototype")
+    public WiredWidget wiredWidget(WiredService wiredService) {
+        return new WiredWidget(wiredService);
+    }
+
+    public static class WiredWidget {
+        public final WiredService wiredService;
+
+        WiredWidget(WiredService wiredService) {
+            this.wiredService = wiredService;
+        }
+    }
+
+    public static class WiredService {
+        public final List<Supplier<String>> suppliers;
+
+        @Service(name = "annotatedWiredService")
+        WiredService(List<Supplier<String>> wiredSuppliers) {
+            this.suppliers = wiredSuppliers;
+        }
+    }
+}